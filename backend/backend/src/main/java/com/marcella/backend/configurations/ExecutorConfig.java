@@ -0,0 +1,50 @@
+package com.marcella.backend.configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${workflow.lanes.fast.worker-threads:16}")
+    private int fastWorkerThreads;
+
+    @Value("${workflow.lanes.io.worker-threads:64}")
+    private int ioWorkerThreads;
+
+    @Value("${workflow.lanes.wait.worker-threads:8}")
+    private int waitWorkerThreads;
+
+    @Bean(name = "nodeWorkerPool")
+    public ThreadPoolTaskExecutor nodeWorkerPool() {
+        return workerPool(fastWorkerThreads, "node-worker-");
+    }
+
+    @Bean(name = "ioNodeWorkerPool")
+    public ThreadPoolTaskExecutor ioNodeWorkerPool() {
+        return workerPool(ioWorkerThreads, "io-node-worker-");
+    }
+
+    @Bean(name = "waitNodeWorkerPool")
+    public ThreadPoolTaskExecutor waitNodeWorkerPool() {
+        return workerPool(waitWorkerThreads, "wait-node-worker-");
+    }
+
+    @Bean(name = "outboxRelayPool")
+    public ThreadPoolTaskExecutor outboxRelayPool() {
+        return workerPool(1, "outbox-relay-");
+    }
+
+    private ThreadPoolTaskExecutor workerPool(int threads, String threadNamePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
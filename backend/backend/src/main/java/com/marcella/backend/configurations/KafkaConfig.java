@@ -1,18 +1,30 @@
 package com.marcella.backend.configurations;
 
+import com.marcella.backend.utils.WorkflowKafkaDeserializer;
+import com.marcella.backend.utils.WorkflowKafkaSerializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,24 +32,99 @@ import java.util.Map;
 @Configuration
 public class KafkaConfig {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${workflow.kafka.executor-concurrency:3}")
+    private int executorConcurrency;
+
+    @Value("${workflow.executor.async:true}")
+    private boolean asyncExecution;
+
+    @Value("${workflow.executor.max-in-flight-per-partition:32}")
+    private int maxInFlightPerPartition;
+
+    @Value("${workflow.kafka.coordinator-concurrency:3}")
+    private int coordinatorConcurrency;
+
+    @Value("${workflow.kafka.completion-batch.retry-interval-ms:1000}")
+    private long completionRetryIntervalMs;
+
+    @Value("${workflow.kafka.completion-batch.retry-attempts:2}")
+    private long completionRetryAttempts;
+
+    @Value("${workflow.kafka.transactions.enabled:false}")
+    private boolean transactionsEnabled;
+
+    @Value("${workflow.kafka.transactions.id-prefix:workflow-coordinator-tx-}")
+    private String transactionIdPrefix;
+
+    @Value("${workflow.serde.format:json}")
+    private String serdeFormat;
+
+    @Value("${workflow.serde.binary-topics:}")
+    private String binaryTopics;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
+        Map<String, Object> props = producerProps();
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(props);
+        if (transactionsEnabled) {
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            props.put(ProducerConfig.ACKS_CONFIG, "all");
+            factory.updateConfigs(props);
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return factory;
+    }
+
+    private Map<String, Object> producerProps() {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, WorkflowKafkaSerializer.class);
 
-        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-
-        return new DefaultKafkaProducerFactory<>(props);
+        props.put(WorkflowKafkaSerializer.FORMAT_CONFIG, serdeFormat);
+        props.put(WorkflowKafkaSerializer.BINARY_TOPICS_CONFIG, binaryTopics);
+        return props;
     }
 
     @Bean
+    @Primary
     public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory());
+        template.setAllowNonTransactional(true);
+        return template;
+    }
+
+    @Bean("outboxKafkaTemplate")
+    public KafkaTemplate<String, Object> outboxKafkaTemplate() {
+        if (!transactionsEnabled) {
+            return new KafkaTemplate<>(producerFactory());
+        }
+
+        Map<String, Object> props = producerProps();
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "workflow.kafka.transactions.enabled", havingValue = "true")
+    public KafkaTransactionManager<String, Object> kafkaTransactionManager() {
+        return new KafkaTransactionManager<>(producerFactory());
     }
 
     @Bean
@@ -51,13 +138,19 @@ public class KafkaConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
 
         props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, WorkflowKafkaDeserializer.class);
 
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.marcella.backend.workflow.NodeExecutionMessage");
-
-        return new DefaultKafkaConsumerFactory<>(props);
+        if (asyncExecution) {
+            props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxInFlightPerPartition);
+        }
+        if (transactionsEnabled) {
+            props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        }
+
+        DefaultKafkaConsumerFactory<String, Object> factory = new DefaultKafkaConsumerFactory<>(props);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean("nodeExecutionListenerFactory")
@@ -65,9 +158,14 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(nodeExecutionConsumerFactory());
 
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        if (asyncExecution) {
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+        } else {
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        }
 
-        factory.setConcurrency(3);
+        factory.setConcurrency(executorConcurrency);
 
         return factory;
     }
@@ -83,11 +181,12 @@ public class KafkaConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
 
         props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, WorkflowKafkaDeserializer.class);
 
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.marcella.backend.workflow.NodeCompletionMessage");
+        if (transactionsEnabled) {
+            props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        }
 
         return new DefaultKafkaConsumerFactory<>(props);
     }
@@ -96,10 +195,33 @@ public class KafkaConfig {
     public ConcurrentKafkaListenerContainerFactory<String, Object> nodeCompletionListenerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(nodeCompletionConsumerFactory());
+        if (transactionsEnabled) {
+            factory.getContainerProperties().setKafkaAwareTransactionManager(kafkaTransactionManager());
+        }
+
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+
+        factory.setConcurrency(coordinatorConcurrency);
+
+        return factory;
+    }
+
+    @Bean("nodeCompletionBatchListenerFactory")
+    public ConcurrentKafkaListenerContainerFactory<String, Object> nodeCompletionBatchListenerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(nodeCompletionConsumerFactory());
+        if (transactionsEnabled) {
+            factory.getContainerProperties().setKafkaAwareTransactionManager(kafkaTransactionManager());
+        }
 
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setBatchListener(true);
+        if (!transactionsEnabled) {
+            factory.setCommonErrorHandler(new DefaultErrorHandler(
+                    new FixedBackOff(completionRetryIntervalMs, completionRetryAttempts)));
+        }
 
-        factory.setConcurrency(1);
+        factory.setConcurrency(coordinatorConcurrency);
 
         return factory;
     }
@@ -1,6 +1,7 @@
 package com.marcella.backend.configurations;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -8,10 +9,29 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaTopicConfig {
 
+    @Value("${workflow.kafka.partitions:12}")
+    private int partitions;
+
     @Bean
     public NewTopic springNodesTopic() {
         return TopicBuilder.name("spring-nodes")
-                .partitions(3)
+                .partitions(partitions)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic springIoNodesTopic() {
+        return TopicBuilder.name("spring-nodes-io")
+                .partitions(partitions)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic springWaitNodesTopic() {
+        return TopicBuilder.name("spring-nodes-wait")
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
@@ -19,7 +39,7 @@ public class KafkaTopicConfig {
     @Bean
     public NewTopic fastApiNodesTopic() {
         return TopicBuilder.name("fastapi-nodes")
-                .partitions(3)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
@@ -27,7 +47,7 @@ public class KafkaTopicConfig {
     @Bean
     public NewTopic nodeCompletionTopic() {
         return TopicBuilder.name("node-completion")
-                .partitions(3)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
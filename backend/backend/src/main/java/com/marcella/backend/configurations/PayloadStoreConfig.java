@@ -0,0 +1,15 @@
+package com.marcella.backend.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "workflow.payload-store")
+public class PayloadStoreConfig {
+    private boolean enabled = true;
+    private String type = "jdbc";
+    private int thresholdBytes = 65536;
+    private String directory = System.getProperty("java.io.tmpdir") + "/workflow-payloads";
+}
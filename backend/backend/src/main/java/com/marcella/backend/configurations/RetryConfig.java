@@ -0,0 +1,63 @@
+package com.marcella.backend.configurations;
+
+import com.marcella.backend.workflow.RetryPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "workflow.retry")
+public class RetryConfig {
+    private int maxAttempts = 1;
+    private long initialBackoffMs = 1000;
+    private double multiplier = 2.0;
+    private long maxBackoffMs = 60000;
+    private double jitter = 0.2;
+    private List<String> retryableExceptions = new ArrayList<>();
+    private List<Integer> retryableStatusCodes = new ArrayList<>();
+    private Map<String, Integer> maxAttemptsByType = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public RetryPolicy policyFor(String nodeType, Map<String, Object> nodeData) {
+        Map<String, Object> overrides = nodeData != null && nodeData.get("retry") instanceof Map<?, ?> retry
+                ? (Map<String, Object>) retry
+                : Map.of();
+
+        int typeMaxAttempts = maxAttemptsByType.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(nodeType))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(maxAttempts);
+
+        return RetryPolicy.builder()
+                .maxAttempts(number(overrides.get("maxAttempts"), typeMaxAttempts).intValue())
+                .initialBackoffMs(number(overrides.get("initialBackoffMs"), initialBackoffMs).longValue())
+                .multiplier(number(overrides.get("multiplier"), multiplier).doubleValue())
+                .maxBackoffMs(number(overrides.get("maxBackoffMs"), maxBackoffMs).longValue())
+                .jitter(number(overrides.get("jitter"), jitter).doubleValue())
+                .retryableExceptions(Set.copyOf(retryableExceptions))
+                .retryableStatusCodes(Set.copyOf(retryableStatusCodes))
+                .build();
+    }
+
+    private Number number(Object value, Number defaultValue) {
+        if (value instanceof Number number) {
+            return number;
+        }
+        if (value != null) {
+            try {
+                return Double.valueOf(String.valueOf(value));
+            } catch (NumberFormatException ignored) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+}
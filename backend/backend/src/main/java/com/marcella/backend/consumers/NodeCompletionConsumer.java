@@ -2,26 +2,45 @@ package com.marcella.backend.consumers;
 
 import com.marcella.backend.services.DistributedWorkflowCoordinator;
 import com.marcella.backend.workflow.NodeCompletionMessage;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Objects;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class NodeCompletionConsumer {
 
     private final DistributedWorkflowCoordinator workflowCoordinator;
+    private final boolean transactional;
+    private final Timer completionTimer;
+
+    public NodeCompletionConsumer(DistributedWorkflowCoordinator workflowCoordinator,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${workflow.kafka.transactions.enabled:false}") boolean transactional) {
+        this.workflowCoordinator = workflowCoordinator;
+        this.transactional = transactional;
+        this.completionTimer = Timer.builder("workflow.coordinator.completion.duration")
+                .description("Time to apply a node completion poll, by delivery mode")
+                .tag("mode", transactional ? "transactional" : "at-least-once")
+                .register(meterRegistry);
+    }
 
     @KafkaListener(
             topics = "node-completion",
             groupId = "workflow-coordinator",
-            containerFactory = "nodeCompletionListenerFactory"
+            containerFactory = "nodeCompletionListenerFactory",
+            autoStartup = "#{!${workflow.kafka.completion-batch.enabled:true}}"
     )
     public void handleNodeCompletion(
             @Payload NodeCompletionMessage message,
@@ -34,15 +53,61 @@ public class NodeCompletionConsumer {
             log.info("Node completion received: {} with status: {} from topic: {} partition: {} offset: {}",
                     message.getNodeId(), message.getStatus(), topic, partition, offset);
 
-            workflowCoordinator.handleNodeCompletion(message);
+            completionTimer.record(() -> workflowCoordinator.handleNodeCompletion(message));
 
             acknowledgment.acknowledge();
 
         } catch (Exception e) {
+            if (transactional) {
+                throw e;
+            }
             log.error("Error processing node completion: {} - will acknowledge to avoid reprocessing",
                     message.getNodeId(), e);
 
             acknowledgment.acknowledge();
         }
     }
-}
\ No newline at end of file
+
+    @KafkaListener(
+            topics = "node-completion",
+            groupId = "workflow-coordinator",
+            containerFactory = "nodeCompletionBatchListenerFactory",
+            autoStartup = "${workflow.kafka.completion-batch.enabled:true}",
+            properties = "max.poll.records=${workflow.kafka.completion-batch.max-records:500}"
+    )
+    public void handleNodeCompletions(@Payload List<NodeCompletionMessage> messages, Acknowledgment acknowledgment) {
+        try {
+            log.info("Node completion batch received: {} records", messages.size());
+
+            completionTimer.record(() ->
+                    workflowCoordinator.handleNodeCompletions(messages.stream().filter(Objects::nonNull).toList()));
+
+            acknowledgment.acknowledge();
+
+        } catch (Exception e) {
+            if (transactional) {
+                throw e;
+            }
+            log.warn("Node completion batch of {} records failed - applying its records one by one",
+                    messages.size(), e);
+
+            applyEach(messages);
+            acknowledgment.acknowledge();
+        }
+    }
+
+    private void applyEach(List<NodeCompletionMessage> messages) {
+        for (int index = 0; index < messages.size(); index++) {
+            NodeCompletionMessage message = messages.get(index);
+            if (message == null) {
+                continue;
+            }
+            try {
+                workflowCoordinator.handleNodeCompletion(message);
+            } catch (Exception e) {
+                throw new BatchListenerFailedException("Error processing node completion: " + message.getNodeId(),
+                        e, index);
+            }
+        }
+    }
+}
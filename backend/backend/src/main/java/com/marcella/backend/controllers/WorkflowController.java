@@ -112,6 +112,7 @@ public class WorkflowController {
         try {
             Map<String, Object> payload = new HashMap<>();
             boolean waitForCompletion = false;
+            boolean earlyReturn = false;
             long timeoutMs = 300000;
             List<String> returnVariables=Collections.emptyList();
 
@@ -123,6 +124,7 @@ public class WorkflowController {
                     }
                     returnVariables = (List<String>) requestBody.get("returnVariables");
                     waitForCompletion = Boolean.TRUE.equals(requestBody.get("waitForCompletion"));
+                    earlyReturn = Boolean.TRUE.equals(requestBody.get("earlyReturn"));
                     if (requestBody.containsKey("timeoutMs")) {
                         timeoutMs = ((Number) requestBody.get("timeoutMs")).longValue();
                     }
@@ -164,7 +166,7 @@ public class WorkflowController {
             UUID executionId = workflowCoordinator.startWorkflowExecution(workflowId, payload, returnVariables);
 
             if (waitForCompletion) {
-                return waitForExecutionCompletion(executionId, timeoutMs);
+                return waitForExecutionCompletion(executionId, timeoutMs, earlyReturn);
             } else {
                 return ResponseEntity.ok(Map.of(
                         "message", "Workflow execution started successfully",
@@ -210,6 +212,7 @@ public class WorkflowController {
             @RequestBody(required = false) Map<String, Object> payload,
             @RequestParam(required = false) List<String> returnVariables,
             @RequestParam(defaultValue = "300000") long timeoutMs,
+            @RequestParam(defaultValue = "false") boolean earlyReturn,
             HttpServletRequest httpRequest
     ) {
         Map<String, Object> request = new HashMap<>();
@@ -217,11 +220,13 @@ public class WorkflowController {
         request.put("returnVariables", returnVariables);
         request.put("waitForCompletion", true);
         request.put("timeoutMs", timeoutMs);
+        request.put("earlyReturn", earlyReturn);
 
         return runWorkflow(workflowId, request, httpRequest);
     }
 
-    private ResponseEntity<Map<String, Object>> waitForExecutionCompletion(UUID executionId, long timeoutMs) {
+    private ResponseEntity<Map<String, Object>> waitForExecutionCompletion(UUID executionId, long timeoutMs,
+                                                                           boolean earlyReturn) {
         long startTime = System.currentTimeMillis();
         long endTime = startTime + timeoutMs;
 
@@ -255,6 +260,12 @@ public class WorkflowController {
                     result.put("error", execution.getError());
                     returnHandler.clearReturnVariables(executionId);
                     return ResponseEntity.ok(result);
+
+                } else if (earlyReturn && returnHandler.hasAllReturnValues(executionId)) {
+                    log.info("⚡ All return variables available before completion: {}", executionId);
+                    Map<String, Object> result = returnHandler.createReturnPayload(executionId, status);
+                    result.put("earlyReturn", true);
+                    return ResponseEntity.ok(result);
                 }
 
                 Thread.sleep(1000); // Check every second
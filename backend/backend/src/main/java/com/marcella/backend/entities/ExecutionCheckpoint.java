@@ -0,0 +1,37 @@
+package com.marcella.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "execution_checkpoints")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExecutionCheckpoint {
+
+    @Id
+    @Column(name = "execution_id")
+    private UUID executionId;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] snapshot;
+
+    @Column(name = "key_count", nullable = false)
+    private Integer keyCount;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Integer sizeBytes;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,36 @@
+package com.marcella.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "workflow_payloads")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WorkflowPayload {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "execution_id", nullable = false)
+    private UUID executionId;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Integer sizeBytes;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+}
@@ -1,9 +1,7 @@
 package com.marcella.backend.nodeHandlers;
 
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.BasicCalculator;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 
 import jakarta.annotation.PostConstruct;
@@ -21,8 +19,6 @@ import java.util.Objects;
 @Slf4j
 public class CalculatorNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
-
     @Override
     public boolean canHandle(String nodeType) {
         return Objects.equals(nodeType, "calculator");
@@ -30,7 +26,6 @@ public class CalculatorNodeHandler implements NodeHandler {
 
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTime = System.currentTimeMillis();
         log.info("Executing calculator node: {}", message.getNodeId());
 
         try {
@@ -49,7 +44,7 @@ public class CalculatorNodeHandler implements NodeHandler {
 
             BasicCalculator.CalculationResult calculationResult = BasicCalculator.safeEvaluate(expression);
 
-            Map<String, Object> output = new HashMap<>(context);
+            Map<String, Object> output = new HashMap<>();
 
             if (calculationResult.isSuccessful()) {
                 double result = calculationResult.getResult();
@@ -61,9 +56,6 @@ public class CalculatorNodeHandler implements NodeHandler {
                 output.put("node_type", "calculator");
                 output.put("executed_at", Instant.now().toString());
 
-                long processingTime = System.currentTimeMillis() - startTime;
-                publishCompletionEvent(message, output, "COMPLETED", processingTime);
-
                 log.info("Expression '{}' evaluated successfully: {}", expression, result);
                 return output;
 
@@ -72,13 +64,9 @@ public class CalculatorNodeHandler implements NodeHandler {
             }
 
         } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
             log.error("Calculator node failed: {}", message.getNodeId(), e);
 
             Map<String, Object> errorOutput = new HashMap<>();
-            if (message.getContext() != null) {
-                errorOutput.putAll(message.getContext());
-            }
 
             errorOutput.put("error", e.getMessage());
             errorOutput.put("expression", message.getNodeData().get("expression"));
@@ -87,28 +75,7 @@ public class CalculatorNodeHandler implements NodeHandler {
             errorOutput.put("failed_at", Instant.now().toString());
             errorOutput.put("node_type", "calculator");
 
-            publishCompletionEvent(message, errorOutput, "FAILED", processingTime);
-            throw new RuntimeException("Error evaluating expression: " + e.getMessage(), e);
+            throw new NodeExecutionException("Error evaluating expression: " + e.getMessage(), errorOutput, e);
         }
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message,
-                                        Map<String, Object> output,
-                                        String status,
-                                        long processingTime) {
-        NodeCompletionMessage completionMessage = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(processingTime)
-                .build();
-
-        eventProducer.publishNodeCompletion(completionMessage);
-        log.info("Published completion event for calculator node: {} with status: {} in {}ms",
-                message.getNodeId(), status, processingTime);
-    }
 }
\ No newline at end of file
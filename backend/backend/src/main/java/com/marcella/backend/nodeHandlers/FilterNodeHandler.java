@@ -1,8 +1,6 @@
 package com.marcella.backend.nodeHandlers;
 
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,8 +15,6 @@ import java.util.Map;
 @Slf4j
 public class FilterNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
-
     @Override
     public boolean canHandle(String nodeType) {
         return "condition".equalsIgnoreCase(nodeType);
@@ -26,7 +22,6 @@ public class FilterNodeHandler implements NodeHandler {
 
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) throws InterruptedException {
-        long startTime = System.currentTimeMillis();
         log.info("Executing filter/condition node: {}", message.getNodeId());
 
         try {
@@ -36,7 +31,7 @@ public class FilterNodeHandler implements NodeHandler {
             Map<String, Object> condition = (Map<String, Object>) nodeData.get("condition");
             if (condition == null) {
                 log.warn("No condition specified in filter node: {}, defaulting to true", message.getNodeId());
-                return executeWithDefaultResult(message, context, true, startTime);
+                return executeWithDefaultResult(message, context, true);
             }
 
             String field = TemplateUtils.substitute((String) condition.get("field"), context);
@@ -45,7 +40,7 @@ public class FilterNodeHandler implements NodeHandler {
 
             if (field == null || operator == null) {
                 log.warn("Invalid condition configuration in node: {} - missing field or operator", message.getNodeId());
-                return executeWithDefaultResult(message, context, false, startTime);
+                return executeWithDefaultResult(message, context, false);
             }
 
             Object actualValue = context.get(field);
@@ -56,15 +51,11 @@ public class FilterNodeHandler implements NodeHandler {
             log.info("Filter evaluation for node {}: {} {} {} = {}",
                     message.getNodeId(), actualValue, operator, expectedValue, conditionResult);
 
-            Map<String, Object> output = buildConditionOutput(context, conditionResult, actualValue, operator, expectedValue);
-
-            long processingTime = System.currentTimeMillis() - startTime;
-            publishCompletionEvent(message, output, "COMPLETED", processingTime);
+            Map<String, Object> output = buildConditionOutput(conditionResult, actualValue, operator, expectedValue);
 
             return output;
 
         } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
             log.error("Filter node failed: {}", message.getNodeId(), e);
 
             Map<String, Object> errorOutput = Map.of(
@@ -73,30 +64,22 @@ public class FilterNodeHandler implements NodeHandler {
                     "failed_at", Instant.now().toString()
             );
 
-            publishCompletionEvent(message, errorOutput, "FAILED", processingTime);
-            throw e;
+            throw new NodeExecutionException(e.getMessage(), errorOutput, e);
         }
     }
 
     private Map<String, Object> executeWithDefaultResult(NodeExecutionMessage message,
                                                          Map<String, Object> context,
-                                                         boolean defaultResult,
-                                                         long startTime) {
-        Map<String, Object> output = buildConditionOutput(context, defaultResult, null, "default", null);
-        long processingTime = System.currentTimeMillis() - startTime;
-        publishCompletionEvent(message, output, "COMPLETED", processingTime);
+                                                         boolean defaultResult) {
+        Map<String, Object> output = buildConditionOutput(defaultResult, null, "default", null);
         return output;
     }
 
-    private Map<String, Object> buildConditionOutput(Map<String, Object> context,
-                                                     boolean conditionResult,
+    private Map<String, Object> buildConditionOutput(boolean conditionResult,
                                                      Object actualValue,
                                                      String operator,
                                                      Object expectedValue) {
         Map<String, Object> output = new HashMap<>();
-        if (context != null) {
-            output.putAll(context);
-        }
 
         output.put("condition_result", conditionResult);
         output.put("condition_passed", conditionResult);
@@ -160,22 +143,4 @@ public class FilterNodeHandler implements NodeHandler {
             };
         }
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output,
-                                        String status, long processingTime) {
-        NodeCompletionMessage completionMessage = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(processingTime)
-                .build();
-
-        eventProducer.publishNodeCompletion(completionMessage);
-        log.info("Published completion event for filter node: {} with status: {} and condition result: {} in {}ms",
-                message.getNodeId(), status, output.get("condition_result"), processingTime);
-    }
 }
@@ -6,9 +6,7 @@ import com.google.api.services.gmail.model.Message;
 import com.google.api.services.gmail.model.Label;
 import com.google.api.services.gmail.model.ListLabelsResponse;
 import com.marcella.backend.configurations.GmailConfig;
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,16 +20,18 @@ import java.util.*;
 @Slf4j
 public class GmailAddLabelNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
-
     @Override
     public boolean canHandle(String nodeType) {
         return "gmailAddLabel".equalsIgnoreCase(nodeType);
     }
 
+    @Override
+    public Set<String> contextKeys() {
+        return Set.of("googleAccessToken", "gmail_messages");
+    }
+
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTime = System.currentTimeMillis();
         Map<String, Object> output = new HashMap<>();
 
         try {
@@ -132,7 +132,6 @@ public class GmailAddLabelNodeHandler implements NodeHandler {
                 }
             }
 
-            if (context != null) output.putAll(context);
             output.put("gmail_messages_modified", successfullyModified.size());
             output.put("gmail_successfully_modified", successfullyModified);
             output.put("gmail_failed_to_modify", failedToModify);
@@ -142,24 +141,20 @@ public class GmailAddLabelNodeHandler implements NodeHandler {
             output.put("node_type", "gmailAddLabel");
             output.put("executed_at", Instant.now().toString());
 
-            publishCompletionEvent(message, output, "COMPLETED", System.currentTimeMillis() - startTime);
             log.info("Gmail label modification completed: modified {} messages, {} failed",
                     successfullyModified.size(), failedToModify.size());
             return output;
 
         } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
             log.error("Gmail Add Label Node Error: {}", message.getNodeId(), e);
 
             Map<String, Object> errorOutput = new HashMap<>();
-            if (message.getContext() != null) errorOutput.putAll(message.getContext());
             errorOutput.put("error", e.getMessage());
             errorOutput.put("label_modification_successful", false);
             errorOutput.put("failed_at", Instant.now().toString());
             errorOutput.put("node_type", "gmailAddLabel");
 
-            publishCompletionEvent(message, errorOutput, "FAILED", duration);
-            throw new RuntimeException("Gmail Add Label Node failed: " + e.getMessage(), e);
+            throw new NodeExecutionException("Gmail Add Label Node failed: " + e.getMessage(), errorOutput, e);
         }
     }
 
@@ -191,21 +186,4 @@ public class GmailAddLabelNodeHandler implements NodeHandler {
 
         return labelMap;
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output, String status, long duration) {
-        NodeCompletionMessage completion = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(duration)
-                .build();
-
-        eventProducer.publishNodeCompletion(completion);
-        log.info("Published completion event for Gmail Add Label node: {} with status: {} in {}ms",
-                message.getNodeId(), status, duration);
-    }
 }
\ No newline at end of file
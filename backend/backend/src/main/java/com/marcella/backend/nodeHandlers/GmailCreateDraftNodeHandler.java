@@ -4,9 +4,7 @@ import com.google.api.services.gmail.Gmail;
 import com.google.api.services.gmail.model.Draft;
 import com.google.api.services.gmail.model.Message;
 import com.marcella.backend.configurations.GmailConfig;
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,16 +24,18 @@ import java.util.*;
 @Slf4j
 public class GmailCreateDraftNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
-
     @Override
     public boolean canHandle(String nodeType) {
         return "gmailCreateDraft".equalsIgnoreCase(nodeType);
     }
 
+    @Override
+    public Set<String> contextKeys() {
+        return Set.of("googleAccessToken");
+    }
+
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTime = System.currentTimeMillis();
         Map<String, Object> output = new HashMap<>();
 
         try {
@@ -74,7 +74,6 @@ public class GmailCreateDraftNodeHandler implements NodeHandler {
 
             Draft createdDraft = service.users().drafts().create("me", draft).execute();
 
-            if (context != null) output.putAll(context);
             output.put("gmail_draft_id", createdDraft.getId());
             output.put("gmail_draft_message_id", createdDraft.getMessage().getId());
             output.put("gmail_draft_thread_id", createdDraft.getMessage().getThreadId());
@@ -84,23 +83,19 @@ public class GmailCreateDraftNodeHandler implements NodeHandler {
             output.put("node_type", "gmailCreateDraft");
             output.put("executed_at", Instant.now().toString());
 
-            publishCompletionEvent(message, output, "COMPLETED", System.currentTimeMillis() - startTime);
             log.info("Gmail draft created successfully: draft ID={}", createdDraft.getId());
             return output;
 
         } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
             log.error("Gmail Create Draft Node Error: {}", message.getNodeId(), e);
 
             Map<String, Object> errorOutput = new HashMap<>();
-            if (message.getContext() != null) errorOutput.putAll(message.getContext());
             errorOutput.put("error", e.getMessage());
             errorOutput.put("draft_creation_successful", false);
             errorOutput.put("failed_at", Instant.now().toString());
             errorOutput.put("node_type", "gmailCreateDraft");
 
-            publishCompletionEvent(message, errorOutput, "FAILED", duration);
-            throw new RuntimeException("Gmail Create Draft Node failed: " + e.getMessage(), e);
+            throw new NodeExecutionException("Gmail Create Draft Node failed: " + e.getMessage(), errorOutput, e);
         }
     }
 
@@ -149,21 +144,4 @@ public class GmailCreateDraftNodeHandler implements NodeHandler {
         message.setRaw(encodedEmail);
         return message;
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output, String status, long duration) {
-        NodeCompletionMessage completion = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(duration)
-                .build();
-
-        eventProducer.publishNodeCompletion(completion);
-        log.info("Published completion event for Gmail Create Draft node: {} with status: {} in {}ms",
-                message.getNodeId(), status, duration);
-    }
 }
\ No newline at end of file
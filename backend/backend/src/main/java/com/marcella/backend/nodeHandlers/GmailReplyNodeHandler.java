@@ -4,9 +4,7 @@ import com.google.api.services.gmail.Gmail;
 import com.google.api.services.gmail.model.Message;
 import com.google.api.services.gmail.model.MessagePartHeader;
 import com.marcella.backend.configurations.GmailConfig;
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,16 +24,18 @@ import java.util.*;
 @Slf4j
 public class GmailReplyNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
-
     @Override
     public boolean canHandle(String nodeType) {
         return "gmailReply".equalsIgnoreCase(nodeType);
     }
 
+    @Override
+    public Set<String> contextKeys() {
+        return Set.of("googleAccessToken", "gmail_messages");
+    }
+
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTime = System.currentTimeMillis();
         Map<String, Object> output = new HashMap<>();
 
         try {
@@ -103,7 +103,6 @@ public class GmailReplyNodeHandler implements NodeHandler {
                 log.info("Reply draft created successfully: draftId={}", createdDraft.getId());
             }
 
-            if (context != null) output.putAll(context);
             output.put("gmail_reply_message_id", sentMessage.getId());
             output.put("gmail_reply_thread_id", sentMessage.getThreadId());
             output.put("gmail_original_message_id", messageId);
@@ -113,25 +112,20 @@ public class GmailReplyNodeHandler implements NodeHandler {
             output.put("node_type", "gmailReply");
             output.put("executed_at", Instant.now().toString());
 
-            publishCompletionEvent(message, output, "COMPLETED", System.currentTimeMillis() - startTime);
-
             String action = sendDraft ? "sent" : "created as draft";
             log.info("Gmail reply {} successfully: reply ID={}", action, sentMessage.getId());
             return output;
 
         } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
             log.error("Gmail Reply Node Error: {}", message.getNodeId(), e);
 
             Map<String, Object> errorOutput = new HashMap<>();
-            if (message.getContext() != null) errorOutput.putAll(message.getContext());
             errorOutput.put("error", e.getMessage());
             errorOutput.put("reply_successful", false);
             errorOutput.put("failed_at", Instant.now().toString());
             errorOutput.put("node_type", "gmailReply");
 
-            publishCompletionEvent(message, errorOutput, "FAILED", duration);
-            throw new RuntimeException("Gmail Reply Node failed: " + e.getMessage(), e);
+            throw new NodeExecutionException("Gmail Reply Node failed: " + e.getMessage(), errorOutput, e);
         }
     }
 
@@ -219,21 +213,4 @@ public class GmailReplyNodeHandler implements NodeHandler {
         message.setRaw(encodedEmail);
         return message;
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output, String status, long duration) {
-        NodeCompletionMessage completion = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(duration)
-                .build();
-
-        eventProducer.publishNodeCompletion(completion);
-        log.info("Published completion event for Gmail Reply node: {} with status: {} in {}ms",
-                message.getNodeId(), status, duration);
-    }
 }
\ No newline at end of file
@@ -4,9 +4,7 @@ import com.google.api.services.gmail.Gmail;
 import com.google.api.services.gmail.model.ListMessagesResponse;
 import com.google.api.services.gmail.model.Message;
 import com.marcella.backend.configurations.GmailConfig;
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,16 +19,18 @@ import java.util.stream.Collectors;
 @Slf4j
 public class GmailSearchNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
-
     @Override
     public boolean canHandle(String nodeType) {
         return "gmailSearch".equalsIgnoreCase(nodeType);
     }
 
+    @Override
+    public Set<String> contextKeys() {
+        return Set.of("googleAccessToken");
+    }
+
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTime = System.currentTimeMillis();
         Map<String, Object> output = new HashMap<>();
 
         try {
@@ -87,7 +87,6 @@ public class GmailSearchNodeHandler implements NodeHandler {
                 }
             }
 
-            if (context != null) output.putAll(context);
             output.put("gmail_messages", messageDetails);
             output.put("gmail_message_count", messageDetails.size());
             output.put("gmail_query", query);
@@ -95,7 +94,6 @@ public class GmailSearchNodeHandler implements NodeHandler {
             output.put("node_type", "gmailSearch");
             output.put("executed_at", Instant.now().toString());
 
-            publishCompletionEvent(message, output, "COMPLETED", System.currentTimeMillis() - startTime);
             log.info("Gmail search completed: found {} messages", messageDetails.size());
             log.info("{}", messageDetails.stream()
                     .map(Object::toString)
@@ -103,35 +101,15 @@ public class GmailSearchNodeHandler implements NodeHandler {
             return output;
 
         } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
             log.error("Gmail Search Node Error: {}", message.getNodeId(), e);
 
             Map<String, Object> errorOutput = new HashMap<>();
-            if (message.getContext() != null) errorOutput.putAll(message.getContext());
             errorOutput.put("error", e.getMessage());
             errorOutput.put("search_successful", false);
             errorOutput.put("failed_at", Instant.now().toString());
             errorOutput.put("node_type", "gmailSearch");
 
-            publishCompletionEvent(message, errorOutput, "FAILED", duration);
-            throw new RuntimeException("Gmail Search Node failed: " + e.getMessage(), e);
+            throw new NodeExecutionException("Gmail Search Node failed: " + e.getMessage(), errorOutput, e);
         }
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output, String status, long duration) {
-        NodeCompletionMessage completion = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(duration)
-                .build();
-
-        eventProducer.publishNodeCompletion(completion);
-        log.info("Published completion event for Gmail Search node: {} with status: {} in {}ms",
-                message.getNodeId(), status, duration);
-    }
 }
\ No newline at end of file
@@ -5,9 +5,7 @@ import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.EventDateTime;
 import com.marcella.backend.configurations.GoogleCalendarConfig;
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +17,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 @Service
@@ -26,16 +25,18 @@ import java.util.TimeZone;
 @Slf4j
 public class GoogleCalendarNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
-
     @Override
     public boolean canHandle(String nodeType) {
         return "googleCalendar".equalsIgnoreCase(nodeType);
     }
 
+    @Override
+    public Set<String> contextKeys() {
+        return Set.of("googleAccessToken", "user_email");
+    }
+
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTimeMillis = System.currentTimeMillis();
         Map<String, Object> output = new HashMap<>();
 
         try {
@@ -93,7 +94,6 @@ public class GoogleCalendarNodeHandler implements NodeHandler {
 
             Event createdEvent = service.events().insert(calendarId, event).execute();
 
-            if (context != null) output.putAll(context);
             output.put("calendar_event_summary", summary);
             output.put("calendar_event_id", createdEvent.getId());
             output.put("calendar_event_link", createdEvent.getHtmlLink());
@@ -107,24 +107,20 @@ public class GoogleCalendarNodeHandler implements NodeHandler {
             if (description != null) output.put("calendar_event_description", description);
             if (location != null) output.put("calendar_event_location", location);
 
-            publishCompletionEvent(message, output, "COMPLETED", System.currentTimeMillis() - startTimeMillis);
             log.info("Successfully created event: {} with ID: {}", summary, createdEvent.getId());
             return output;
 
         } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTimeMillis;
             log.error("Google Calendar Node Error for node: {}", message.getNodeId(), e);
 
             Map<String, Object> errorOutput = new HashMap<>();
-            if (message.getContext() != null) errorOutput.putAll(message.getContext());
             errorOutput.put("error", e.getMessage());
             errorOutput.put("calendar_operation_failed", true);
             errorOutput.put("failed_at", Instant.now().toString());
             errorOutput.put("node_type", "googleCalendar");
             errorOutput.put("event_created", false);
 
-            publishCompletionEvent(message, errorOutput, "FAILED", duration);
-            throw new RuntimeException("Google Calendar Node failed: " + e.getMessage(), e);
+            throw new NodeExecutionException("Google Calendar Node failed: " + e.getMessage(), errorOutput, e);
         }
     }
 
@@ -138,21 +134,4 @@ public class GoogleCalendarNodeHandler implements NodeHandler {
         isoFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
         return isoFormat.format(date);
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output, String status, long duration) {
-        NodeCompletionMessage completion = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(duration)
-                .build();
-
-        eventProducer.publishNodeCompletion(completion);
-        log.info("Published completion event for Google Calendar node: {} with status: {} in {}ms",
-                message.getNodeId(), status, duration);
-    }
 }
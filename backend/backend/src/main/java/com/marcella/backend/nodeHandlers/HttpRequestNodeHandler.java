@@ -2,9 +2,7 @@ package com.marcella.backend.nodeHandlers;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,13 +15,13 @@ import java.net.URI;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class HttpRequestNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -32,9 +30,13 @@ public class HttpRequestNodeHandler implements NodeHandler {
         return nodeType.toLowerCase().startsWith("http");
     }
 
+    @Override
+    public Set<String> contextKeys() {
+        return Set.of("googleAccessToken");
+    }
+
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTime = System.currentTimeMillis();
         Map<String, Object> output = new HashMap<>();
 
         try {
@@ -95,25 +97,18 @@ public class HttpRequestNodeHandler implements NodeHandler {
 
             processResponse(response, output, context);
 
-            long processingTime = System.currentTimeMillis() - startTime;
-            publishCompletionEvent(message, output, "COMPLETED", processingTime);
             return output;
 
         } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
             log.error("HTTP Request Node Error for node: {}", message.getNodeId(), e);
 
             Map<String, Object> errorOutput = new HashMap<>();
-            if (message.getContext() != null) {
-                errorOutput.putAll(message.getContext());
-            }
             errorOutput.put("error", e.getMessage());
             errorOutput.put("http_request_failed", true);
             errorOutput.put("failed_at", Instant.now().toString());
             errorOutput.put("node_type", "httpRequest");
 
-            publishCompletionEvent(message, errorOutput, "FAILED", processingTime);
-            throw new RuntimeException("HTTP Request Node failed: " + e.getMessage(), e);
+            throw new NodeExecutionException("HTTP Request Node failed: " + e.getMessage(), errorOutput, e);
         }
     }
 
@@ -262,9 +257,6 @@ public class HttpRequestNodeHandler implements NodeHandler {
     }
 
     private void processResponse(ResponseEntity<String> response, Map<String, Object> output, Map<String, Object> context) {
-        if (context != null) {
-            output.putAll(context);
-        }
 
         HttpStatusCode statusCode = response.getStatusCode();
         output.put("http_status_code", statusCode.value());
@@ -281,7 +273,6 @@ public class HttpRequestNodeHandler implements NodeHandler {
         output.put("node_type", "httpRequest");
         output.put("executed_at", Instant.now().toString());
 
-
         if (response.getBody() != null && !response.getBody().trim().isEmpty()) {
             try {
                 Object parsedBody = objectMapper.readValue(response.getBody(), Object.class);
@@ -305,21 +296,4 @@ public class HttpRequestNodeHandler implements NodeHandler {
         }
     }
 
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output, String status, long duration) {
-        NodeCompletionMessage completion = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(duration)
-                .build();
-
-        eventProducer.publishNodeCompletion(completion);
-        log.info("Published completion event for HTTP request node: {} with status: {} in {}ms",
-                message.getNodeId(), status, duration);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.marcella.backend.nodeHandlers;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+public class NodeExecutionException extends RuntimeException {
+
+    private final Map<String, Object> output;
+
+    public NodeExecutionException(String message, Map<String, Object> output, Throwable cause) {
+        super(message, cause);
+        this.output = output;
+    }
+}
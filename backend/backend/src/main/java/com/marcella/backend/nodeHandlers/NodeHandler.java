@@ -3,8 +3,17 @@ package com.marcella.backend.nodeHandlers;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 
 import java.util.Map;
+import java.util.Set;
 
 public interface NodeHandler {
     boolean canHandle(String nodeType);
     Map<String, Object> execute(NodeExecutionMessage message) throws Exception;
+
+    default boolean completesAsynchronously() {
+        return false;
+    }
+
+    default Set<String> contextKeys() {
+        return Set.of();
+    }
 }
@@ -2,8 +2,6 @@ package com.marcella.backend.nodeHandlers;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.marcella.backend.services.WorkflowEventProducer;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,13 +12,13 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StartNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -31,9 +29,13 @@ public class StartNodeHandler implements NodeHandler {
         return "start".equals(nodeType);
     }
 
+    @Override
+    public Set<String> contextKeys() {
+        return Set.of("openai");
+    }
+
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTime = System.currentTimeMillis();
         log.info("Start node executed for workflow: {} node: {}", message.getWorkflowId(), message.getNodeId());
 
         try {
@@ -71,9 +73,6 @@ public class StartNodeHandler implements NodeHandler {
             }
 
             if (message.getContext() != null) {
-                output.putAll(message.getContext());
-
-
                 checkAndStoreOpenAIKey(message.getContext(), message.getExecutionId().toString());
             }
 
@@ -82,17 +81,11 @@ public class StartNodeHandler implements NodeHandler {
             output.put("execution_id", message.getExecutionId().toString());
             output.put("started_by", "workflow_coordinator");
 
-            long processingTime = System.currentTimeMillis() - startTime;
-
-            publishCompletionEvent(message, output, "COMPLETED", processingTime);
-
             return output;
 
         } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
             log.error("Start node failed: {}", message.getNodeId(), e);
-            publishCompletionEvent(message, Map.of("error", e.getMessage()), "FAILED", processingTime);
-            throw e;
+            throw new NodeExecutionException(e.getMessage(), Map.of("error", String.valueOf(e.getMessage())), e);
         }
     }
 
@@ -126,7 +119,6 @@ public class StartNodeHandler implements NodeHandler {
                     log.info("✅ Stored OpenAI API key in Redis for execution: {} (key: {})",
                             executionId, redisKey);
 
-
                     redisTemplate.opsForValue().set("openai_api_key", apiKey, API_KEY_TTL);
                     log.info("✅ Updated global OpenAI API key in Redis");
 
@@ -139,22 +131,4 @@ public class StartNodeHandler implements NodeHandler {
 
         }
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output,
-                                        String status, long processingTime) {
-        NodeCompletionMessage completionMessage = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(processingTime)
-                .build();
-
-        eventProducer.publishNodeCompletion(completionMessage);
-        log.info("Published completion event for node: {} with status: {} in {}ms",
-                message.getNodeId(), status, processingTime);
-    }
 }
\ No newline at end of file
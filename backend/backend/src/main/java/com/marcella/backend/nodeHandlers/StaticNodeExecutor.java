@@ -1,22 +1,47 @@
 package com.marcella.backend.nodeHandlers;
 
+import com.marcella.backend.configurations.RetryConfig;
+import com.marcella.backend.services.KahnAlgoService;
+import com.marcella.backend.services.PayloadOffloadService;
 import com.marcella.backend.services.WorkflowEventProducer;
+import com.marcella.backend.services.WorkflowTimerService;
 import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
+import com.marcella.backend.workflow.LayeredContext;
+import com.marcella.backend.workflow.NodeFailurePolicy;
+import com.marcella.backend.workflow.RetryPolicy;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import com.marcella.backend.nodeHandlers.NodeHandler;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -25,16 +50,74 @@ public class StaticNodeExecutor {
 
     private final List<NodeHandler> nodeHandlers;
     private final WorkflowEventProducer eventProducer;
+    private final KahnAlgoService kahnService;
+    private final WorkflowTimerService timerService;
+    private final RetryConfig retryConfig;
+    private final PayloadOffloadService payloadService;
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier("nodeWorkerPool")
+    @Autowired
+    private ThreadPoolTaskExecutor nodeWorkerPool;
+
+    @Qualifier("ioNodeWorkerPool")
+    @Autowired
+    private ThreadPoolTaskExecutor ioNodeWorkerPool;
+
+    @Qualifier("waitNodeWorkerPool")
+    @Autowired
+    private ThreadPoolTaskExecutor waitNodeWorkerPool;
+
+    private final Map<TopicPartition, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    private static final String LISTENER_ID = "spring-node-executor";
+    private static final String IO_LISTENER_ID = "spring-node-executor-io";
+    private static final String WAIT_LISTENER_ID = "spring-node-executor-wait";
+    private static final Duration REDELIVERY_DELAY = Duration.ofSeconds(1);
+
+    @Value("${workflow.context.legacy-output-keys:false}")
+    private boolean legacyOutputKeys;
+
+    @Value("${workflow.executor.async:true}")
+    private boolean asyncExecution;
+
+    @Value("${workflow.executor.max-in-flight-per-partition:32}")
+    private int maxInFlightPerPartition;
+
     @PostConstruct
     public void printHandlers() {
         System.out.println( nodeHandlers.stream()
                 .map(h -> h.getClass().getSimpleName())
                 .toList());
     }
+
+    @PostConstruct
+    public void registerLaneMetrics() {
+        for (String topic : List.of(WorkflowEventProducer.SPRING_NODES_TOPIC,
+                WorkflowEventProducer.SPRING_IO_NODES_TOPIC, WorkflowEventProducer.SPRING_WAIT_NODES_TOPIC)) {
+            Gauge.builder("workflow.executor.lane.in.flight", inFlight, counts -> laneInFlight(counts, topic))
+                    .description("Spring nodes dispatched to the worker pool but not yet acknowledged")
+                    .tag("lane", topic)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static double laneInFlight(Map<TopicPartition, AtomicInteger> counts, String topic) {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getKey().topic().equals(topic))
+                .mapToInt(entry -> entry.getValue().get())
+                .sum();
+    }
+
     @KafkaListener(
-            topics = "spring-nodes",
+            id = LISTENER_ID,
+            topics = WorkflowEventProducer.SPRING_NODES_TOPIC,
             groupId = "spring-node-executor",
-            containerFactory = "nodeExecutionListenerFactory"
+            containerFactory = "nodeExecutionListenerFactory",
+            concurrency = "${workflow.lanes.fast.concurrency:3}"
     )
     public void executeNode(
             @Payload NodeExecutionMessage message,
@@ -42,72 +125,353 @@ public class StaticNodeExecutor {
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
             Acknowledgment acknowledgment) {
+        dispatch(message, topic, partition, offset, acknowledgment, LISTENER_ID, nodeWorkerPool);
+    }
 
-        long startTime = System.currentTimeMillis();
-        String nodeId = message.getNodeId();
-        String nodeType = message.getNodeType();
+    @KafkaListener(
+            id = IO_LISTENER_ID,
+            topics = WorkflowEventProducer.SPRING_IO_NODES_TOPIC,
+            groupId = "spring-node-executor-io",
+            containerFactory = "nodeExecutionListenerFactory",
+            concurrency = "${workflow.lanes.io.concurrency:3}"
+    )
+    public void executeIoNode(
+            @Payload NodeExecutionMessage message,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset,
+            Acknowledgment acknowledgment) {
+        dispatch(message, topic, partition, offset, acknowledgment, IO_LISTENER_ID, ioNodeWorkerPool);
+    }
+
+    @KafkaListener(
+            id = WAIT_LISTENER_ID,
+            topics = WorkflowEventProducer.SPRING_WAIT_NODES_TOPIC,
+            groupId = "spring-node-executor-wait",
+            containerFactory = "nodeExecutionListenerFactory",
+            concurrency = "${workflow.lanes.wait.concurrency:1}"
+    )
+    public void executeWaitNode(
+            @Payload NodeExecutionMessage message,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset,
+            Acknowledgment acknowledgment) {
+        dispatch(message, topic, partition, offset, acknowledgment, WAIT_LISTENER_ID, waitNodeWorkerPool);
+    }
 
+    private void dispatch(NodeExecutionMessage message, String topic, int partition, long offset,
+                          Acknowledgment acknowledgment, String listenerId, ThreadPoolTaskExecutor workerPool) {
         log.info("Executing node: {} of type: {} from topic: {} partition: {} offset: {}",
-                nodeId, nodeType, topic, partition, offset);
+                message.getNodeId(), message.getNodeType(), topic, partition, offset);
 
-        try {
-            Optional<NodeHandler> handler = findHandler(nodeType);
+        if (kahnService.isAborted(message.getExecutionId())) {
+            log.info("Dropping node: {} of aborted execution: {}", message.getNodeId(), message.getExecutionId());
+            acknowledgment.acknowledge();
+            return;
+        }
 
-            if (handler.isEmpty()) {
-                String error = "No handler found for node type: " + nodeType;
-                log.error(error);
-                publishFailureEvent(message, error, startTime);
+        if (!asyncExecution) {
+            try {
+                execute(message, workerPool).join();
                 acknowledgment.acknowledge();
-                return;
+            } catch (CompletionException e) {
+                log.error("Redelivering node: {} of execution: {}", message.getNodeId(), message.getExecutionId(), e);
+                acknowledgment.nack(REDELIVERY_DELAY);
             }
+            return;
+        }
 
-            Map<String, Object> output = handler.get().execute(message);
+        TopicPartition topicPartition = new TopicPartition(topic, partition);
+        AtomicInteger partitionInFlight = inFlight.computeIfAbsent(topicPartition, tp -> new AtomicInteger());
+        synchronized (partitionInFlight) {
+            if (partitionInFlight.incrementAndGet() >= maxInFlightPerPartition) {
+                pause(listenerId, topicPartition);
+            }
+        }
 
-            long processingTime = System.currentTimeMillis() - startTime;
-            log.info("Node execution completed: {} in {}ms", nodeId, processingTime);
+        try {
+            workerPool.execute(() -> execute(message, workerPool).whenComplete((sent, error) -> {
+                if (error == null) {
+                    acknowledgment.acknowledge();
+                } else {
+                    log.error("Leaving node: {} of execution: {} uncommitted for redelivery",
+                            message.getNodeId(), message.getExecutionId(), error);
+                }
+                release(listenerId, topicPartition, partitionInFlight);
+            }));
+        } catch (RuntimeException e) {
+            release(listenerId, topicPartition, partitionInFlight);
+            throw e;
+        }
+    }
 
-            acknowledgment.acknowledge();
+    private void release(String listenerId, TopicPartition topicPartition, AtomicInteger partitionInFlight) {
+        synchronized (partitionInFlight) {
+            if (partitionInFlight.decrementAndGet() < maxInFlightPerPartition) {
+                resume(listenerId, topicPartition);
+            }
+        }
+    }
 
+    private CompletableFuture<?> execute(NodeExecutionMessage message, Executor fallbackExecutor) {
+        NodeCompletionMessage completion;
+        try {
+            completion = run(message);
         } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
-            log.error("Node execution failed: {} after {}ms", nodeId, processingTime, e);
-            publishFailureEvent(message, e.getMessage(), startTime);
+            log.error("Failed to execute node: {}", message.getNodeId(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+        if (completion == null) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-            acknowledgment.acknowledge();
+        return publish(completion).exceptionallyAsync(error -> {
+            log.warn("Failed to publish completion for node: {}, handing it to the timer store",
+                    completion.getNodeId(), error);
+            timerService.schedule(completion, Instant.now().plus(REDELIVERY_DELAY));
+            return null;
+        }, fallbackExecutor);
+    }
+
+    private CompletableFuture<?> publish(NodeCompletionMessage completion) {
+        try {
+            payloadService.offload(completion);
+            return eventProducer.publishNodeCompletion(completion);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
-    private Optional<NodeHandler> findHandler(String nodeType) {
-        return nodeHandlers.stream()
-                .filter(handler -> handler.canHandle(nodeType))
-                .findFirst();
+    private void pause(String listenerId, TopicPartition topicPartition) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+        if (container != null && !container.isPartitionPauseRequested(topicPartition)) {
+            log.debug("Pausing {} with {} nodes in flight", topicPartition, maxInFlightPerPartition);
+            container.pausePartition(topicPartition);
+        }
+    }
+
+    private void resume(String listenerId, TopicPartition topicPartition) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+        if (container != null && container.isPartitionPauseRequested(topicPartition)) {
+            container.resumePartition(topicPartition);
+        }
     }
 
-    private void publishFailureEvent(NodeExecutionMessage message, String error, long startTime) {
+    public NodeCompletionMessage run(NodeExecutionMessage message) {
+        if (message.getChainedNodes() == null || message.getChainedNodes().isEmpty()) {
+            return runNode(message, List.of(), null);
+        }
+        return runChain(message);
+    }
+
+    private NodeCompletionMessage runChain(NodeExecutionMessage head) {
+        long startTime = System.currentTimeMillis();
+        log.info("Executing chain of {} nodes starting at: {}", head.getChainedNodes().size() + 1, head.getNodeId());
+
+        List<NodeExecutionMessage> steps = head.getChainedNodes();
+        NodeCompletionMessage previous = runNode(head, steps, head.getGlobalVariables());
+        if (previous == null) {
+            return null;
+        }
+
+        List<NodeCompletionMessage> completions = new ArrayList<>();
+        List<String> deferredNodes = new ArrayList<>();
+        completions.add(previous);
+        Map<String, Object> previousNodeData = head.getNodeData();
+        Map<String, Object> previousContext = head.getContext();
+
+        for (int i = 0; i < steps.size(); i++) {
+            NodeExecutionMessage step = steps.get(i);
+            if (stopsChain(previous, previousNodeData)) {
+                log.info("Stopping chain at failed node: {}", previous.getNodeId());
+                break;
+            }
+
+            NodeExecutionMessage message = NodeExecutionMessage.builder()
+                    .executionId(head.getExecutionId())
+                    .workflowId(head.getWorkflowId())
+                    .nodeId(step.getNodeId())
+                    .nodeType(step.getNodeType())
+                    .nodeData(step.getNodeData())
+                    .context(chainedContext(previous, previousContext, head.getGlobalVariables()))
+                    .dependencies(step.getDependencies())
+                    .timestamp(Instant.now())
+                    .googleAccessToken(head.getGoogleAccessToken())
+                    .priority(head.getPriority())
+                    .attempt(1)
+                    .build();
+
+            previous = runNode(message, steps.subList(i + 1, steps.size()), head.getGlobalVariables());
+            if (previous == null) {
+                steps.subList(i, steps.size()).forEach(deferred -> deferredNodes.add(deferred.getNodeId()));
+                break;
+            }
+            completions.add(previous);
+            previousNodeData = step.getNodeData();
+            previousContext = message.getContext();
+        }
+
+        boolean failed = completions.stream().anyMatch(completion -> "FAILED".equals(completion.getStatus()));
+
+        return NodeCompletionMessage.builder()
+                .executionId(head.getExecutionId())
+                .workflowId(head.getWorkflowId())
+                .nodeId(head.getNodeId())
+                .nodeType(head.getNodeType())
+                .status(failed ? "FAILED" : "COMPLETED")
+                .timestamp(Instant.now())
+                .processingTime(System.currentTimeMillis() - startTime)
+                .chainCompletions(completions)
+                .deferredNodes(deferredNodes)
+                .build();
+    }
+
+    private boolean stopsChain(NodeCompletionMessage completion, Map<String, Object> nodeData) {
+        if (!"FAILED".equals(completion.getStatus())) {
+            return false;
+        }
+        Object onError = nodeData != null ? nodeData.get("onError") : null;
+        return NodeFailurePolicy.from(onError) != NodeFailurePolicy.CONTINUE;
+    }
+
+    private Map<String, Object> chainedContext(NodeCompletionMessage previous, Map<String, Object> previousContext,
+                                               Map<String, Object> globalVariables) {
+        Map<String, Object> previousOutput = previous.getOutput();
+        Map<String, Object> previousView = new LayeredContext(
+                Arrays.asList(previousOutput, globalVariables, previousContext));
+
+        Map<String, Object> outputKey = new HashMap<>();
+        if (previousOutput != null && !previousOutput.isEmpty()) {
+            outputKey.put(previous.getNodeId() + "_output", legacyOutputKeys ? previousView : previousOutput);
+        }
+
+        return new LayeredContext(Arrays.asList(globalVariables, outputKey, previousOutput, previousContext));
+    }
+
+    private NodeCompletionMessage runNode(NodeExecutionMessage message, List<NodeExecutionMessage> remainingChain,
+                                          Map<String, Object> globalVariables) {
+        long startTime = System.currentTimeMillis();
+        String nodeId = message.getNodeId();
+        String nodeType = message.getNodeType();
+
+        Optional<NodeHandler> handler = findHandler(nodeType);
+
+        if (handler.isEmpty()) {
+            String error = "No handler found for node type: " + nodeType;
+            log.error(error);
+            return failureMessage(message, error, defaultFailureOutput(message, error), startTime);
+        }
+
+        Map<String, Object> context = message.getContext();
         try {
+            message.setContext(payloadService.resolving(context));
+            Map<String, Object> output = handler.get().execute(message);
+            message.setContext(context);
+
+            if (handler.get().completesAsynchronously()) {
+                log.info("Node {} will complete asynchronously", nodeId);
+                return null;
+            }
+
             long processingTime = System.currentTimeMillis() - startTime;
+            log.info("Node execution completed: {} in {}ms", nodeId, processingTime);
 
-            NodeCompletionMessage failureMessage = NodeCompletionMessage.builder()
+            return NodeCompletionMessage.builder()
                     .executionId(message.getExecutionId())
                     .workflowId(message.getWorkflowId())
-                    .nodeId(message.getNodeId())
-                    .nodeType(message.getNodeType())
-                    .status("FAILED")
-                    .error(error)
-                    .output(Map.of(
-                            "error", error,
-                            "failed_at", Instant.now().toString(),
-                            "node_type", message.getNodeType()
-                    ))
+                    .nodeId(nodeId)
+                    .nodeType(nodeType)
+                    .status("COMPLETED")
+                    .output(output)
                     .timestamp(Instant.now())
                     .processingTime(processingTime)
+                    .attempt(Math.max(1, message.getAttempt()))
                     .build();
 
-            eventProducer.publishNodeCompletion(failureMessage);
-            log.info("Published failure event for node: {}", message.getNodeId());
+        } catch (NodeExecutionException e) {
+            log.error("Node execution failed: {} after {}ms", nodeId, System.currentTimeMillis() - startTime, e);
+            message.setContext(context);
+            if (scheduleRetry(message, remainingChain, globalVariables, e)) {
+                return null;
+            }
+            return failureMessage(message, e.getMessage(), e.getOutput(), startTime);
 
-        } catch (Exception publishError) {
-            log.error("Failed to publish failure event for node: {}", message.getNodeId(), publishError);
+        } catch (Exception e) {
+            log.error("Node execution failed: {} after {}ms", nodeId, System.currentTimeMillis() - startTime, e);
+            message.setContext(context);
+            if (scheduleRetry(message, remainingChain, globalVariables, e)) {
+                return null;
+            }
+            return failureMessage(message, e.getMessage(), defaultFailureOutput(message, e.getMessage()), startTime);
         }
     }
-}
\ No newline at end of file
+
+    private boolean scheduleRetry(NodeExecutionMessage message, List<NodeExecutionMessage> remainingChain,
+                                  Map<String, Object> globalVariables, Exception error) {
+        RetryPolicy policy = retryConfig.policyFor(message.getNodeType(), message.getNodeData());
+        int attempt = Math.max(1, message.getAttempt());
+
+        if (!policy.shouldRetry(attempt, error)) {
+            return false;
+        }
+
+        NodeExecutionMessage retry = NodeExecutionMessage.builder()
+                .executionId(message.getExecutionId())
+                .workflowId(message.getWorkflowId())
+                .nodeId(message.getNodeId())
+                .nodeType(message.getNodeType())
+                .nodeData(message.getNodeData())
+                .context(message.getContext())
+                .dependencies(message.getDependencies())
+                .googleAccessToken(message.getGoogleAccessToken())
+                .priority(message.getPriority())
+                .attempt(attempt + 1)
+                .chainedNodes(remainingChain.isEmpty() ? null : List.copyOf(remainingChain))
+                .globalVariables(remainingChain.isEmpty() ? null : globalVariables)
+                .build();
+
+        long backoffMs = policy.backoffMs(attempt);
+        try {
+            timerService.scheduleRetry(eventProducer.resolveTopic(message.getNodeType()), retry,
+                    Instant.now().plusMillis(backoffMs));
+        } catch (Exception scheduleError) {
+            log.error("Failed to schedule retry for node: {}", message.getNodeId(), scheduleError);
+            return false;
+        }
+
+        log.warn("Retrying node: {} in {}ms (attempt {} of {})",
+                message.getNodeId(), backoffMs, attempt + 1, policy.getMaxAttempts());
+        return true;
+    }
+
+    private Optional<NodeHandler> findHandler(String nodeType) {
+        return nodeHandlers.stream()
+                .filter(handler -> handler.canHandle(nodeType))
+                .findFirst();
+    }
+
+    private Map<String, Object> defaultFailureOutput(NodeExecutionMessage message, String error) {
+        return Map.of(
+                "error", String.valueOf(error),
+                "failed_at", Instant.now().toString(),
+                "node_type", message.getNodeType()
+        );
+    }
+
+    private NodeCompletionMessage failureMessage(NodeExecutionMessage message, String error,
+                                                 Map<String, Object> output, long startTime) {
+        return NodeCompletionMessage.builder()
+                .executionId(message.getExecutionId())
+                .workflowId(message.getWorkflowId())
+                .nodeId(message.getNodeId())
+                .nodeType(message.getNodeType())
+                .status("FAILED")
+                .error(error)
+                .output(output)
+                .timestamp(Instant.now())
+                .processingTime(System.currentTimeMillis() - startTime)
+                .attempt(Math.max(1, message.getAttempt()))
+                .build();
+    }
+}
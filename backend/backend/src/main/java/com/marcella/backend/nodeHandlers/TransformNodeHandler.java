@@ -1,8 +1,6 @@
 package com.marcella.backend.nodeHandlers;
 
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,8 +15,6 @@ import java.util.Map;
 @Slf4j
 public class TransformNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
-
     @Override
     public boolean canHandle(String nodeType) {
         return "transform".equals(nodeType);
@@ -26,7 +22,6 @@ public class TransformNodeHandler implements NodeHandler {
 
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTime = System.currentTimeMillis();
         log.info("Executing transform node: {}", message.getNodeId());
 
         try {
@@ -50,41 +45,15 @@ public class TransformNodeHandler implements NodeHandler {
                 }
             }
 
-            if (context != null) {
-                output.putAll(context);
-            }
-
             output.put("transformed_at", Instant.now().toString());
             output.put("node_type", "transform");
             output.put("node_executed_at", Instant.now().toString());
 
-            long processingTime = System.currentTimeMillis() - startTime;
-            publishCompletionEvent(message, output, "COMPLETED", processingTime);
             return output;
 
         } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
             log.error("Transform node failed: {}", message.getNodeId(), e);
-            publishCompletionEvent(message, Map.of("error", e.getMessage()), "FAILED", processingTime);
-            throw e;
+            throw new NodeExecutionException(e.getMessage(), Map.of("error", String.valueOf(e.getMessage())), e);
         }
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output,
-                                        String status, long processingTime) {
-        NodeCompletionMessage completionMessage = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(processingTime)
-                .build();
-
-        eventProducer.publishNodeCompletion(completionMessage);
-        log.info("Published completion event for transform node: {} with status: {} in {}ms",
-                message.getNodeId(), status, processingTime);
-    }
 }
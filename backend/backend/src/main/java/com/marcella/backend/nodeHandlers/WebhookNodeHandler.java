@@ -2,9 +2,7 @@ package com.marcella.backend.nodeHandlers;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.marcella.backend.services.WorkflowEventProducer;
 import com.marcella.backend.utils.TemplateUtils;
-import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,7 +19,6 @@ import java.util.Map;
 @Slf4j
 public class WebhookNodeHandler implements NodeHandler {
 
-    private final WorkflowEventProducer eventProducer;
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -32,7 +29,6 @@ public class WebhookNodeHandler implements NodeHandler {
 
     @Override
     public Map<String, Object> execute(NodeExecutionMessage message) {
-        long startTime = System.currentTimeMillis();
         log.info("Executing webhook node: {}", message.getNodeId());
 
         try {
@@ -50,9 +46,6 @@ public class WebhookNodeHandler implements NodeHandler {
             Map<String, Object> payload = processPayload(nodeData.get("payload"), context);
 
             Map<String, Object> output = new HashMap<>();
-            if (context != null) {
-                output.putAll(context);
-            }
 
             if (url != null && !url.trim().isEmpty()) {
                 try {
@@ -98,26 +91,18 @@ public class WebhookNodeHandler implements NodeHandler {
             output.put("node_type", "webhook");
             output.put("executed_at", Instant.now().toString());
 
-            long processingTime = System.currentTimeMillis() - startTime;
-            publishCompletionEvent(message, output, "COMPLETED", processingTime);
-
             return output;
 
         } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
             log.error("Webhook node failed: {}", message.getNodeId(), e);
 
             Map<String, Object> errorOutput = new HashMap<>();
-            if (message.getContext() != null) {
-                errorOutput.putAll(message.getContext());
-            }
             errorOutput.put("error", e.getMessage());
             errorOutput.put("webhook_called", false);
             errorOutput.put("failed_at", Instant.now().toString());
             errorOutput.put("node_type", "webhook");
 
-            publishCompletionEvent(message, errorOutput, "FAILED", processingTime);
-            throw new RuntimeException("Webhook node failed: " + e.getMessage(), e);
+            throw new NodeExecutionException("Webhook node failed: " + e.getMessage(), errorOutput, e);
         }
     }
 
@@ -219,22 +204,4 @@ public class WebhookNodeHandler implements NodeHandler {
                 String.class
         );
     }
-
-    private void publishCompletionEvent(NodeExecutionMessage message, Map<String, Object> output,
-                                        String status, long processingTime) {
-        NodeCompletionMessage completionMessage = NodeCompletionMessage.builder()
-                .executionId(message.getExecutionId())
-                .workflowId(message.getWorkflowId())
-                .nodeId(message.getNodeId())
-                .nodeType(message.getNodeType())
-                .status(status)
-                .output(output)
-                .timestamp(Instant.now())
-                .processingTime(processingTime)
-                .build();
-
-        eventProducer.publishNodeCompletion(completionMessage);
-        log.info("Published completion event for webhook node: {} with status: {} in {}ms",
-                message.getNodeId(), status, processingTime);
-    }
 }
\ No newline at end of file
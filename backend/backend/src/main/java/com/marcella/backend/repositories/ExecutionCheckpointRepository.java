@@ -0,0 +1,9 @@
+package com.marcella.backend.repositories;
+
+import com.marcella.backend.entities.ExecutionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface ExecutionCheckpointRepository extends JpaRepository<ExecutionCheckpoint, UUID> {
+}
@@ -0,0 +1,27 @@
+package com.marcella.backend.repositories;
+
+import com.marcella.backend.entities.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query(value = """
+            WITH heads AS (
+                SELECT id, execution_id FROM outbox_events
+                WHERE id IN (
+                    SELECT min(id) FROM outbox_events
+                    GROUP BY execution_id ORDER BY min(id) LIMIT :limit
+                )
+                FOR UPDATE SKIP LOCKED
+            )
+            SELECT e.* FROM outbox_events e
+            JOIN heads h ON e.execution_id IS NOT DISTINCT FROM h.execution_id
+            ORDER BY e.id LIMIT :limit
+            """, nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+}
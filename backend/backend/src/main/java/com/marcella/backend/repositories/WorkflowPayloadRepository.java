@@ -0,0 +1,19 @@
+package com.marcella.backend.repositories;
+
+import com.marcella.backend.entities.WorkflowPayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+public interface WorkflowPayloadRepository extends JpaRepository<WorkflowPayload, UUID> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WorkflowPayload p WHERE p.executionId = :executionId")
+    int deleteByExecutionId(@Param("executionId") UUID executionId);
+
+}
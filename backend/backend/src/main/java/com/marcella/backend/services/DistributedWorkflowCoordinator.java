@@ -2,17 +2,25 @@ package com.marcella.backend.services;
 
 import com.marcella.backend.entities.Execution;
 import com.marcella.backend.entities.Workflows;
+import com.marcella.backend.nodeHandlers.StaticNodeExecutor;
 import com.marcella.backend.repositories.ExecutionRepository;
 import com.marcella.backend.repositories.WorkflowRepository;
 import com.marcella.backend.workflow.*;
+import io.lettuce.core.RedisException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.apache.kafka.common.KafkaException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,18 +32,34 @@ public class DistributedWorkflowCoordinator {
     private final KahnAlgoService kahnService;
     private final WorkflowEventProducer eventProducer;
     private final ExecutionService executionService;
-    private final WorkflowDefinitionParser workflowDefinitionParser;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final WorkflowPlanCache planCache;
     private final ExecutionRepository executionRepository;
     private final ReturnHandlerService returnHandler;
-    private void initializeExecutionContext(UUID executionId, WorkflowDefinition workflowDef,
-                                            Map<String, Object> payload) {
+    private final StaticNodeExecutor staticNodeExecutor;
+    private final PayloadOffloadService payloadService;
+    private final ExecutionLifecycleService lifecycleService;
+    private final RedisUnitOfWorkFactory unitOfWorkFactory;
+    private final ExecutionCheckpointService checkpointService;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final String FASTAPI_NODES_TOPIC = "fastapi-nodes";
+
+    @Value("${workflow.context.legacy-output-keys:false}")
+    private boolean legacyOutputKeys;
+
+    @Value("${workflow.kafka.transactions.enabled:false}")
+    private boolean transactionalDispatch;
+
+    private void initializeExecutionContext(UUID executionId, ExecutionPlan plan,
+                                            Map<String, Object> payload, List<String> returnVariables) {
 
         ExecutionContext context = ExecutionContext.builder()
                 .executionId(executionId)
-                .workflowId(workflowDef.getId())
+                .workflowId(plan.getWorkflowId())
+                .workflowVersion(plan.getVersion())
                 .status(ExecutionContext.ExecutionStatus.RUNNING)
                 .startTime(Instant.now())
+                .requestedReturnVariables(returnVariables)
                 .globalVariables(new HashMap<>())
                 .nodeOutputs(new HashMap<>())
                 .build();
@@ -54,11 +78,12 @@ public class DistributedWorkflowCoordinator {
         }
 
         context.getGlobalVariables().put("execution_id", executionId.toString());
-        context.getGlobalVariables().put("workflow_id", workflowDef.getId().toString());
-        context.getGlobalVariables().put("workflow_name", workflowDef.getName());
+        context.getGlobalVariables().put("workflow_id", plan.getWorkflowId().toString());
+        context.getGlobalVariables().put("workflow_name", plan.getWorkflowName());
         context.getGlobalVariables().put("execution_started_at", Instant.now().toString());
 
         contextService.storeContext(executionId, context);
+        returnHandler.captureReturnValues(executionId, returnVariables, context.getGlobalVariables());
 
         log.info("Initialized execution context for: {} with {} variables",
                 executionId, context.getGlobalVariables().size());
@@ -71,43 +96,44 @@ public class DistributedWorkflowCoordinator {
         Workflows workflow = workflowRepository.findById(workflowId)
                 .orElseThrow(() -> new RuntimeException("Workflow not found: " + workflowId));
 
-        Execution execution = executionService.startExecution(workflow);
-        UUID executionId = execution.getId();
-
+        AtomicReference<UUID> started = new AtomicReference<>();
         try {
-            WorkflowDefinition workflowDef = workflowDefinitionParser.parseWorkflowDefinition(workflow);
+            return transactionTemplate.execute(status -> {
+                Execution execution = executionService.startExecution(workflow);
+                UUID executionId = execution.getId();
+                started.set(executionId);
 
-            if (returnVariables != null && !returnVariables.isEmpty()) {
-                returnHandler.storeReturnVariables(executionId, returnVariables);
-                log.info("📋 Stored {} return variables for execution: {}", returnVariables.size(), executionId);
-            }
+                ExecutionPlan plan = planCache.getPlan(workflow);
 
-            initializeExecutionContext(executionId, workflowDef, payload);
+                if (returnVariables != null && !returnVariables.isEmpty()) {
+                    returnHandler.storeReturnVariables(executionId, returnVariables);
+                    log.info("📋 Stored {} return variables for execution: {}", returnVariables.size(), executionId);
+                }
 
-            DependencyGraph dependencyGraph = kahnService.buildDependencyGraph(workflowDef);
-            contextService.storeDependencyGraph(executionId, dependencyGraph);
+                initializeExecutionContext(executionId, plan, payload, returnVariables);
 
-            List<String> readyNodes = kahnService.getInitialReadyNodes(dependencyGraph);
+                kahnService.initializeExecutionState(executionId, plan);
 
-            if (readyNodes.isEmpty()) {
-                throw new RuntimeException("No ready nodes found - workflow may have circular dependencies");
-            }
+                List<String> readyNodes = plan.getInitialReadyNodes();
 
-            contextService.addReadyNodes(executionId, readyNodes);
+                if (readyNodes.isEmpty()) {
+                    throw new RuntimeException("No ready nodes found - workflow may have circular dependencies");
+                }
 
-            routeNodesToServices(executionId, readyNodes, workflowDef);
+                routeNodesToServices(executionId, readyNodes, plan);
 
-            log.info("Workflow execution started successfully: {} with {} initial ready nodes",
-                    executionId, readyNodes.size());
+                log.info("Workflow execution started successfully: {} with {} initial ready nodes",
+                        executionId, readyNodes.size());
 
-            return executionId;
+                return executionId;
+            });
 
         } catch (Exception e) {
             log.error("Failed to start workflow execution: {}", workflowId, e);
-            executionService.failExecution(execution, e.getMessage());
+            executionService.recordFailedStart(workflow, e.getMessage());
 
-            if (returnVariables != null && !returnVariables.isEmpty()) {
-                returnHandler.clearReturnVariables(executionId);
+            if (started.get() != null && returnVariables != null && !returnVariables.isEmpty()) {
+                returnHandler.clearReturnVariables(started.get());
             }
 
             throw new RuntimeException("Failed to start workflow execution: " + e.getMessage(), e);
@@ -137,33 +163,29 @@ public class DistributedWorkflowCoordinator {
         Workflows workflow = workflowRepository.findById(workflowId)
                 .orElseThrow(() -> new RuntimeException("Workflow not found: " + workflowId));
 
-        Execution execution = executionService.startExecution(workflow);
-        UUID executionId = execution.getId();
-
         try {
-            WorkflowDefinition workflowDef = workflowDefinitionParser.parseWorkflowDefinition(workflow);
-
-            boolean nodeExists = workflowDef.getNodes().stream()
-                    .anyMatch(node -> node.getId().equals(nodeId));
+            transactionTemplate.executeWithoutResult(status -> {
+                Execution execution = executionService.startExecution(workflow);
+                UUID executionId = execution.getId();
 
-            if (!nodeExists) {
-                throw new RuntimeException("Target node not found in workflow: " + nodeId);
-            }
+                ExecutionPlan plan = planCache.getPlan(workflow);
 
-            initializeExecutionContext(executionId, workflowDef, payload);
+                if (!plan.containsNode(nodeId)) {
+                    throw new RuntimeException("Target node not found in workflow: " + nodeId);
+                }
 
-            DependencyGraph dependencyGraph = kahnService.buildDependencyGraph(workflowDef);
-            contextService.storeDependencyGraph(executionId, dependencyGraph);
+                initializeExecutionContext(executionId, plan, payload, null);
 
-            contextService.addReadyNodes(executionId, List.of(nodeId));
+                kahnService.initializeExecutionState(executionId, plan);
 
-            routeNodesToServices(executionId, List.of(nodeId), workflowDef);
+                routeNodesToServices(executionId, List.of(nodeId), plan);
 
-            log.info("Started new workflow execution: {} at node: {}", executionId, nodeId);
+                log.info("Started new workflow execution: {} at node: {}", executionId, nodeId);
+            });
 
         } catch (Exception e) {
             log.error("Failed to start workflow at specific node: {} for workflow: {}", nodeId, workflowId, e);
-            executionService.failExecution(execution, e.getMessage());
+            executionService.recordFailedStart(workflow, e.getMessage());
             throw new RuntimeException("Failed to start workflow at node: " + e.getMessage(), e);
         }
     }
@@ -189,7 +211,10 @@ public class DistributedWorkflowCoordinator {
     private void resumeExistingExecution(UUID executionId, String nodeId, Map<String, Object> payload) {
         log.info("Resuming existing execution: {} at node: {}", executionId, nodeId);
 
-        ExecutionContext context = contextService.getContext(executionId);
+        ExecutionContext context = contextService.getContext(executionId, List.of());
+        if (context == null && checkpointService.restore(executionId)) {
+            context = contextService.getContext(executionId, List.of());
+        }
         if (context == null) {
             throw new RuntimeException("Execution context not found: " + executionId);
         }
@@ -198,45 +223,73 @@ public class DistributedWorkflowCoordinator {
             context.getGlobalVariables().putAll(payload);
             context.getGlobalVariables().put("webhook_resumed_at", Instant.now().toString());
             context.getGlobalVariables().put("webhook_resume_node", nodeId);
-            contextService.updateContext(executionId, context);
+            contextService.updateGlobalVariables(executionId, context.getGlobalVariables());
+            returnHandler.captureMissingReturnValues(executionId, context.getRequestedReturnVariables(), payload);
             log.info("Updated execution context with {} new payload variables", payload.size());
         }
 
-        Workflows workflow = workflowRepository.findById(context.getWorkflowId())
-                .orElseThrow(() -> new RuntimeException("Workflow not found: " + context.getWorkflowId()));
-
-        WorkflowDefinition workflowDef = workflowDefinitionParser.parseWorkflowDefinition(workflow);
+        ExecutionPlan plan = planCache.getPlan(context.getWorkflowId(), context.getWorkflowVersion());
 
-        boolean nodeExists = workflowDef.getNodes().stream()
-                .anyMatch(node -> node.getId().equals(nodeId));
-
-        if (!nodeExists) {
+        if (!plan.containsNode(nodeId)) {
             throw new RuntimeException("Node not found in workflow: " + nodeId);
         }
 
-        contextService.addReadyNodes(executionId, List.of(nodeId));
-
-        routeNodesToServices(executionId, List.of(nodeId), workflowDef);
+        routeNodesToServices(executionId, List.of(nodeId), plan);
 
         log.info("Successfully resumed execution at node: {}", nodeId);
     }
 
-    private void routeNodesToServices(UUID executionId, List<String> nodeIds, WorkflowDefinition workflow) {
-        Map<String, WorkflowNode> nodeMap = workflow.getNodes().stream()
-                .collect(Collectors.toMap(WorkflowNode::getId, Function.identity()));
+    private void routeNodesToServices(UUID executionId, List<String> nodeIds, ExecutionPlan plan) {
+        Deque<NodeCompletionMessage> inlineCompletions = new ArrayDeque<>();
+        RedisUnitOfWork unitOfWork = unitOfWorkFactory.begin();
+
+        unitOfWork.write(connection -> checkpointService.touch(connection, executionId));
+        unitOfWork.write(connection -> contextService.writeReadyNodes(connection, executionId, nodeIds));
+        routeNodesToServices(executionId, nodeIds, plan, inlineCompletions, unitOfWork);
+        unitOfWorkFactory.record(unitOfWork);
+
+        processCompletions(inlineCompletions);
+    }
 
-        for (String nodeId : nodeIds) {
-            WorkflowNode node = nodeMap.get(nodeId);
-            if (node != null) {
-                routeNodeToService(executionId, workflow.getId(), node);
+    private void routeNodesToServices(UUID executionId, List<String> nodeIds, ExecutionPlan plan,
+                                      Deque<NodeCompletionMessage> inlineCompletions, RedisUnitOfWork unitOfWork) {
+        List<WorkflowNode> nodes = nodeIds.stream()
+                .map(plan::getNode)
+                .filter(Objects::nonNull)
+                .toList();
+
+        Map<String, ExecutionContext> contexts = new HashMap<>();
+        List<WorkflowNode> uncached = new ArrayList<>();
+        for (WorkflowNode node : nodes) {
+            ExecutionContext cached = contextService.getCachedContext(executionId, plan.getContextLayers(node.getId()));
+            if (cached != null) {
+                contexts.put(node.getId(), cached);
+            } else {
+                uncached.add(node);
             }
         }
-    }
 
-    private void routeNodeToService(UUID executionId, UUID workflowId, WorkflowNode node) {
-        ExecutionContext context = contextService.getContext(executionId);
+        List<Object> results = unitOfWork.read(uncached.stream()
+                .<Consumer<RedisConnection>>map(node -> connection -> contextService.readContext(
+                        connection, executionId, plan.getContextLayers(node.getId())))
+                .toList());
+        for (int i = 0; i < uncached.size(); i++) {
+            String nodeId = uncached.get(i).getId();
+            contexts.put(nodeId, contextService.decodeContext(executionId, results.get(i), plan.getContextLayers(nodeId)));
+        }
 
-        Map<String, Object> nodeContext = buildNodeContext(executionId, node.getId(), context);
+        for (WorkflowNode node : nodes) {
+            ExecutionContext context = contexts.get(node.getId());
+            if (context == null) {
+                throw new RuntimeException("Execution context not found: " + executionId);
+            }
+            routeNodeToService(executionId, plan, node, context, inlineCompletions);
+        }
+    }
+
+    private void routeNodeToService(UUID executionId, ExecutionPlan plan, WorkflowNode node, ExecutionContext context,
+                                    Deque<NodeCompletionMessage> inlineCompletions) {
+        Map<String, Object> nodeContext = buildNodeContext(plan, node.getId(), context);
 
         String googleToken = null;
         if (nodeContext.containsKey("googleAccessToken")) {
@@ -247,100 +300,352 @@ public class DistributedWorkflowCoordinator {
         }
         NodeExecutionMessage message = NodeExecutionMessage.builder()
                 .executionId(executionId)
-                .workflowId(workflowId)
+                .workflowId(plan.getWorkflowId())
                 .nodeId(node.getId())
                 .nodeType(node.getType())
                 .nodeData(node.getData())
                 .context(nodeContext)
-                .dependencies(getDependencies(executionId, node.getId()))
+                .dependencies(plan.getDependencies(node.getId()))
                 .timestamp(Instant.now())
                 .googleAccessToken(googleToken)
                 .priority(NodeExecutionMessage.Priority.NORMAL)
+                .attempt(1)
                 .build();
 
-        eventProducer.publishNodeExecution(message);
+        if (plan.isChainHead(node.getId())) {
+            message.setChainedNodes(buildChainedNodes(plan, node.getId()));
+            message.setGlobalVariables(context.getGlobalVariables());
+        }
+
+        if (plan.isInline(node.getId())) {
+            log.debug("Executing node: {} of type: {} inline", node.getId(), node.getType());
+            NodeCompletionMessage completion = staticNodeExecutor.run(message);
+            if (completion != null) {
+                inlineCompletions.add(completion);
+            }
+            return;
+        }
+
+        Set<String> contextKeys = plan.getContextKeys(node.getId());
+        if (contextKeys != null) {
+            message.setContext(projectContext(nodeContext, contextKeys));
+        }
+        if (FASTAPI_NODES_TOPIC.equals(plan.getTopic(node.getId()))) {
+            message.setContext(payloadService.materialize(message.getContext()));
+        }
+        eventProducer.publishNodeExecution(plan.getTopic(node.getId()), message);
     }
 
-    private Map<String, Object> buildNodeContext(UUID executionId, String nodeId, ExecutionContext context) {
-        Map<String, Object> nodeContext = new HashMap<>();
+    private List<NodeExecutionMessage> buildChainedNodes(ExecutionPlan plan, String headNodeId) {
+        List<String> chain = plan.getChain(headNodeId);
+        List<NodeExecutionMessage> chainedNodes = new ArrayList<>();
+
+        for (String nodeId : chain.subList(1, chain.size())) {
+            WorkflowNode node = plan.getNode(nodeId);
+            chainedNodes.add(NodeExecutionMessage.builder()
+                    .nodeId(nodeId)
+                    .nodeType(node.getType())
+                    .nodeData(node.getData())
+                    .dependencies(plan.getDependencies(nodeId))
+                    .build());
+        }
 
-        List<String> dependencies = getDependencies(executionId, nodeId);
+        return chainedNodes;
+    }
 
-        for (String depNodeId : dependencies) {
-            Map<String, Object> depOutput = context.getNodeOutputs().get(depNodeId);
-            if (depOutput != null) {
-                nodeContext.putAll(depOutput);
+    private Map<String, Object> buildNodeContext(ExecutionPlan plan, String nodeId, ExecutionContext context) {
+        Map<String, Map<String, Object>> outputs = context.getNodeOutputs();
 
-                nodeContext.put(depNodeId + "_output", depOutput);
+        Map<String, Object> ancestorOutputs = new HashMap<>();
+        for (String ancestorId : plan.getContextLayers(nodeId)) {
+            Map<String, Object> ancestorOutput = outputs.get(ancestorId);
+            if (ancestorOutput != null) {
+                ancestorOutputs.put(ancestorId + "_output", legacyOutputKeys
+                        ? nodeView(plan, ancestorId, ancestorOutput, context)
+                        : ancestorOutput);
             }
         }
 
-        if (context.getGlobalVariables() != null) {
-            nodeContext.putAll(context.getGlobalVariables());
-        }
+        List<Map<String, Object>> layers = new ArrayList<>();
+        layers.add(context.getGlobalVariables());
+        layers.add(ancestorOutputs);
+        plan.getContextLayers(nodeId).forEach(ancestor -> layers.add(outputs.get(ancestor)));
 
-        return nodeContext;
+        return new LayeredContext(layers);
     }
 
-    private List<String> getDependencies(UUID executionId, String nodeId) {
-        String dependencyKey = "execution:dependencies:" + executionId;
-        DependencyGraph graph = (DependencyGraph) redisTemplate.opsForValue().get(dependencyKey);
-
-        if (graph != null) {
-            return graph.getIncomingEdges().getOrDefault(nodeId, new ArrayList<>());
+    private Map<String, Object> projectContext(Map<String, Object> nodeContext, Set<String> contextKeys) {
+        Map<String, Object> projected = new HashMap<>();
+        for (String key : contextKeys) {
+            if (nodeContext.containsKey(key)) {
+                projected.put(key, nodeContext.get(key));
+            }
         }
+        return projected;
+    }
 
-        return new ArrayList<>();
+    private Map<String, Object> nodeView(ExecutionPlan plan, String nodeId, Map<String, Object> output,
+                                         ExecutionContext context) {
+        List<Map<String, Object>> layers = new ArrayList<>();
+        layers.add(output);
+        layers.add(context.getGlobalVariables());
+        plan.getContextLayers(nodeId).forEach(ancestor -> layers.add(context.getNodeOutputs().get(ancestor)));
+        return new LayeredContext(layers);
     }
 
     public void handleNodeCompletion(NodeCompletionMessage completionMessage) {
-        UUID executionId = completionMessage.getExecutionId();
-        String completedNodeId = completionMessage.getNodeId();
+        Deque<NodeCompletionMessage> pending = new ArrayDeque<>();
+        pending.add(completionMessage);
+        processCompletions(pending);
+    }
+
+    public void handleNodeCompletions(List<NodeCompletionMessage> completionMessages) {
+        List<List<NodeCompletionMessage>> runs = completionRuns(completionMessages);
+        log.info("Processing {} node completions in {} runs", completionMessages.size(), runs.size());
+
+        for (List<NodeCompletionMessage> run : runs) {
+            if (run.size() == 1) {
+                handleNodeCompletion(run.get(0));
+                continue;
+            }
+
+            Deque<NodeCompletionMessage> pending = new ArrayDeque<>();
+            applyNodeCompletions(run.get(0).getExecutionId(), run, Set.of(), pending);
+            processCompletions(pending);
+        }
+    }
 
-        log.info("Processing completion for node: {} in execution: {}", completedNodeId, executionId);
+    static List<List<NodeCompletionMessage>> completionRuns(List<NodeCompletionMessage> completionMessages) {
+        Map<UUID, List<NodeCompletionMessage>> byExecution = new LinkedHashMap<>();
+        for (NodeCompletionMessage completion : completionMessages) {
+            byExecution.computeIfAbsent(completion.getExecutionId(), id -> new ArrayList<>()).add(completion);
+        }
 
+        List<List<NodeCompletionMessage>> runs = new ArrayList<>();
+        for (List<NodeCompletionMessage> completions : byExecution.values()) {
+            List<NodeCompletionMessage> run = new ArrayList<>();
+            for (NodeCompletionMessage completion : completions) {
+                if (completion.getChainCompletions() == null || completion.getChainCompletions().isEmpty()) {
+                    run.add(completion);
+                    continue;
+                }
+                if (!run.isEmpty()) {
+                    runs.add(run);
+                    run = new ArrayList<>();
+                }
+                runs.add(List.of(completion));
+            }
+            if (!run.isEmpty()) {
+                runs.add(run);
+            }
+        }
+        return runs;
+    }
+
+    private void applyNodeCompletions(UUID executionId, List<NodeCompletionMessage> completions, Set<String> chainNodes,
+                                      Deque<NodeCompletionMessage> inlineCompletions) {
+        RedisUnitOfWork unitOfWork = unitOfWorkFactory.begin();
         try {
-            if (completionMessage.getOutput() != null && !completionMessage.getOutput().isEmpty()) {
-                contextService.updateNodeOutput(executionId, completedNodeId, completionMessage.getOutput());
+            applyNodeCompletions(executionId, completions, chainNodes, inlineCompletions, unitOfWork);
+        } finally {
+            unitOfWorkFactory.record(unitOfWork);
+        }
+    }
+
+    private void applyNodeCompletions(UUID executionId, List<NodeCompletionMessage> completions, Set<String> chainNodes,
+                                      Deque<NodeCompletionMessage> inlineCompletions, RedisUnitOfWork unitOfWork) {
+        log.info("Applying {} completions for execution: {}", completions.size(), executionId);
 
-                trackReturnVariablesFromOutput(executionId, completionMessage.getOutput());
+        try {
+            unitOfWork.write(connection -> checkpointService.touch(connection, executionId));
+            List<Consumer<RedisConnection>> reads = new ArrayList<>();
+            reads.add(connection -> kahnService.readAborted(connection, executionId));
+            reads.add(connection -> contextService.readMetadata(connection, executionId));
+            for (NodeCompletionMessage completion : completions) {
+                if (completion.getOutput() != null && !completion.getOutput().isEmpty()) {
+                    Map<String, Object> output = payloadService.offload(executionId, completion.getOutput());
+                    completion.setOutput(output);
+                    unitOfWork.write(connection -> contextService.writeNodeOutput(
+                            connection, executionId, completion.getNodeId(), output));
+                }
+                reads.add(connection -> kahnService.readCompletionSeen(
+                        connection, executionId, completion.getNodeId(), completion.getAttempt()));
+            }
 
-                log.info("Updated context with output from node: {}", completedNodeId);
+            List<Object> state = unitOfWork.read(reads);
+            if (Boolean.TRUE.equals(state.get(0))) {
+                log.info("Dropping {} completions of aborted execution: {}", completions.size(), executionId);
+                return;
             }
 
-            List<String> newlyReadyNodes = kahnService.processNodeCompletion(executionId, completedNodeId);
+            ExecutionContext context = contextService.decodeMetadata(state.get(1));
+            if (context == null && checkpointService.restore(executionId)) {
+                applyNodeCompletions(executionId, completions, chainNodes, inlineCompletions, unitOfWork);
+                return;
+            }
+            if (context == null) {
+                throw new RuntimeException("Execution context not found: " + executionId);
+            }
+            ExecutionPlan plan = planCache.getPlan(context.getWorkflowId(), context.getWorkflowVersion());
+
+            List<NodeCompletionMessage> unseen = new ArrayList<>();
+            for (int i = 0; i < completions.size(); i++) {
+                if (Boolean.TRUE.equals(state.get(i + 2))) {
+                    log.info("Ignoring redelivered completion for node: {} attempt {} in execution: {}",
+                            completions.get(i).getNodeId(), completions.get(i).getAttempt(), executionId);
+                    redispatchReadyNodes(executionId, completions.get(i).getNodeId(), state.get(1), chainNodes,
+                            inlineCompletions, unitOfWork);
+                } else {
+                    unseen.add(completions.get(i));
+                }
+            }
 
-            if (!newlyReadyNodes.isEmpty()) {
-                log.info("Ready nodes after completion: {}", newlyReadyNodes);
+            for (NodeCompletionMessage completion : unseen) {
+                if (!"FAILED".equals(completion.getStatus())) {
+                    continue;
+                }
+                NodeFailurePolicy policy = plan.getFailurePolicy(completion.getNodeId());
+                if (policy == NodeFailurePolicy.FAIL) {
+                    abortExecution(executionId, "Node " + completion.getNodeId() + " failed: " + completion.getError());
+                    return;
+                }
+                if (policy == NodeFailurePolicy.SKIP) {
+                    log.warn("Node {} failed, skipping its dependents: {}", completion.getNodeId(), completion.getError());
+                }
+            }
+            if (unseen.isEmpty()) {
+                return;
+            }
 
-                contextService.addReadyNodes(executionId, newlyReadyNodes);
+            List<NodeCompletionResult> results = kahnService.processNodeCompletions(executionId, plan, unseen);
+            unitOfWork.countRoundTrips(results.stream().mapToInt(NodeCompletionResult::getTransitions).sum());
+
+            Set<String> readyNodes = new LinkedHashSet<>();
+            boolean workflowComplete = false;
+            for (int i = 0; i < results.size(); i++) {
+                NodeCompletionResult result = results.get(i);
+                NodeCompletionMessage completion = unseen.get(i);
+                if (result.isDuplicate()) {
+                    log.info("Ignoring already applied completion for node: {} in execution: {}",
+                            completion.getNodeId(), executionId);
+                    redispatchReadyNodes(executionId, completion.getNodeId(), state.get(1), chainNodes,
+                            inlineCompletions, unitOfWork);
+                    continue;
+                }
 
-                ExecutionContext context = contextService.getContext(executionId);
-                Workflows workflow = workflowRepository.findById(context.getWorkflowId())
-                        .orElseThrow(() -> new RuntimeException("Workflow not found"));
+                unitOfWork.write(connection -> returnHandler.writeReturnValues(connection, executionId,
+                        context.getRequestedReturnVariables(), completion.getOutput()));
+                if (!result.getSkippedNodes().isEmpty()) {
+                    log.info("Skipped nodes after completing {}: {}", completion.getNodeId(), result.getSkippedNodes());
+                }
+                result.getReadyNodes().stream()
+                        .filter(nodeId -> !chainNodes.contains(nodeId))
+                        .forEach(readyNodes::add);
+                workflowComplete |= result.isWorkflowComplete();
+            }
 
-                WorkflowDefinition workflowDef = workflowDefinitionParser.parseWorkflowDefinition(workflow);
+            if (!readyNodes.isEmpty()) {
+                List<String> newlyReadyNodes = List.copyOf(readyNodes);
+                log.info("Ready nodes after completions: {}", newlyReadyNodes);
 
-                routeNodesToServices(executionId, newlyReadyNodes, workflowDef);
+                unitOfWork.write(connection -> contextService.writeReadyNodes(connection, executionId, newlyReadyNodes));
+                routeNodesToServices(executionId, newlyReadyNodes, plan, inlineCompletions, unitOfWork);
             } else {
-                log.info("No new ready nodes after completing: {}", completedNodeId);
+                unitOfWork.flush();
 
-                if (kahnService.isWorkflowComplete(executionId)) {
+                if (workflowComplete) {
                     completeWorkflowExecution(executionId);
                 }
             }
 
         } catch (Exception e) {
-            log.error("Failed to process node completion: {} for execution: {}", completedNodeId, executionId, e);
+            log.error("Failed to process completions for execution: {}", executionId, e);
+            if (rollsBack(e)) {
+                throw e;
+            }
 
-            Execution execution = executionRepository.findById(executionId)
-                    .orElse(null);
-            if (execution != null) {
-                executionService.failExecution(execution, "Node completion processing failed: " + e.getMessage());
+            abortExecution(executionId, "Node completion processing failed: " + e.getMessage());
+        }
+    }
 
-                returnHandler.clearReturnVariables(executionId);
+    private void processCompletions(Deque<NodeCompletionMessage> pending) {
+        while (!pending.isEmpty()) {
+            applyNodeCompletion(pending.poll(), pending);
+        }
+    }
+
+    private void applyNodeCompletion(NodeCompletionMessage completionMessage,
+                                     Deque<NodeCompletionMessage> inlineCompletions) {
+        UUID executionId = completionMessage.getExecutionId();
+        List<NodeCompletionMessage> chainCompletions = completionMessage.getChainCompletions();
+
+        if (chainCompletions == null || chainCompletions.isEmpty()) {
+            log.info("Processing completion for node: {} in execution: {}", completionMessage.getNodeId(), executionId);
+            applyNodeCompletions(executionId, List.of(completionMessage), Set.of(), inlineCompletions);
+            return;
+        }
+
+        Set<String> chainNodes = chainCompletions.stream()
+                .map(NodeCompletionMessage::getNodeId)
+                .collect(Collectors.toCollection(HashSet::new));
+        if (completionMessage.getDeferredNodes() != null) {
+            chainNodes.addAll(completionMessage.getDeferredNodes());
+        }
+
+        log.info("Processing chain completion for nodes: {} in execution: {}", chainNodes, executionId);
+
+        applyNodeCompletions(executionId, chainCompletions, chainNodes, inlineCompletions);
+    }
+
+    private void redispatchReadyNodes(UUID executionId, String completedNodeId, Object metadata, Set<String> chainNodes,
+                                      Deque<NodeCompletionMessage> inlineCompletions, RedisUnitOfWork unitOfWork) {
+        if (!transactionalDispatch) {
+            return;
+        }
+
+        ExecutionContext context = contextService.decodeMetadata(metadata);
+        if (context == null) {
+            return;
+        }
+
+        ExecutionPlan plan = planCache.getPlan(context.getWorkflowId(), context.getWorkflowVersion());
+        List<String> readyNodes = kahnService.findUndispatchedReadyNodes(executionId, completedNodeId, plan).stream()
+                .filter(nodeId -> !chainNodes.contains(nodeId))
+                .toList();
+
+        if (!readyNodes.isEmpty()) {
+            log.info("Re-dispatching ready nodes {} after redelivered completion of: {}", readyNodes, completedNodeId);
+            routeNodesToServices(executionId, readyNodes, plan, inlineCompletions, unitOfWork);
+        }
+    }
+
+    private boolean rollsBack(Throwable error) {
+        if (!transactionalDispatch) {
+            return false;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessException || cause instanceof TransactionException
+                    || cause instanceof KafkaException || cause instanceof org.springframework.kafka.KafkaException
+                    || cause instanceof RedisException) {
+                return true;
             }
         }
+        return false;
+    }
+
+    private void abortExecution(UUID executionId, String reason) {
+        log.warn("Failing execution: {} - {}", executionId, reason);
+
+        kahnService.markAborted(executionId);
+
+        Execution execution = executionRepository.findById(executionId)
+                .orElse(null);
+        if (execution != null) {
+            executionService.failExecution(execution, reason);
+
+            returnHandler.clearReturnVariables(executionId);
+        }
+        lifecycleService.scheduleRelease(executionId, true);
     }
 
     private void completeWorkflowExecution(UUID executionId) {
@@ -350,8 +655,6 @@ public class DistributedWorkflowCoordinator {
             Execution execution = executionRepository.findById(executionId)
                     .orElseThrow(() -> new RuntimeException("Execution not found: " + executionId));
 
-            ExecutionContext context = contextService.getContext(executionId);
-
             Map<String, Object> finalOutput;
             List<String> returnVariables = returnHandler.getReturnVariables(executionId);
 
@@ -360,12 +663,11 @@ public class DistributedWorkflowCoordinator {
                 log.info("📤 Workflow completed with {} return variables", finalOutput.size());
             } else {
                 finalOutput = null;
-                log.info("📤 Workflow completed with all {} variables",0);
+                log.info("📤 Workflow completed without requested return variables");
             }
 
             executionService.completeExecution(execution, finalOutput);
-
-
+            lifecycleService.scheduleRelease(executionId, false);
 
             log.info("Workflow execution successfully completed : {}", executionId);
 
@@ -377,21 +679,7 @@ public class DistributedWorkflowCoordinator {
             } catch (Exception cleanupError) {
                 log.warn("Failed to cleanup return variables for execution: {}", executionId, cleanupError);
             }
-        }
-    }
-    private void trackReturnVariablesFromOutput(UUID executionId, Map<String, Object> output) {
-        log.info("00 output: {}", output);
-        if (output == null || output.isEmpty()) {
-            return;
-        }
-        List<String> returnVariables = returnHandler.getReturnVariables(executionId);
-        log.info("return varibale {}",returnVariables);
-        if (returnVariables.isEmpty()) {
-            return;
-        }
-
-        for (String returnVar : returnVariables) {
-                log.debug("🎯 Tracked return variable: {} = {}", returnVar, output.get(returnVar));
+            lifecycleService.scheduleRelease(executionId, true);
         }
     }
 }
@@ -0,0 +1,279 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.entities.ExecutionCheckpoint;
+import com.marcella.backend.repositories.ExecutionCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+@Slf4j
+public class ExecutionCheckpointService {
+
+    private static final String ACTIVITY_KEY = "workflow:lifecycle:activity";
+    private static final String OPENAI_KEY_SUFFIX = ":openai_api_key";
+    private static final String RESTORE_MARKER_PREFIX = "workflow:checkpoint:restoring:";
+    private static final Duration RESTORED_EXPIRATION = Duration.ofHours(24);
+    private static final Duration RESTORE_MARKER_EXPIRATION = Duration.ofMinutes(1);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<String>> CLAIM_IDLE_EXECUTIONS_SCRIPT =
+            (RedisScript) RedisScript.of(new ClassPathResource("redis/claim_idle_executions.lua"), List.class);
+    private static final RedisScript<Long> EVICT_IDLE_EXECUTION_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/evict_idle_execution.lua"), Long.class);
+    private static final RedisScript<Long> RELEASE_IDLE_CLAIM_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/release_idle_claim.lua"), Long.class);
+    private static final RedisScript<Long> RESTORE_CHECKPOINT_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/restore_checkpoint.lua"), Long.class);
+
+    @Qualifier("customStringRedisTemplate")
+    @Autowired
+    private RedisTemplate<String, String> customStringRedisTemplate;
+
+    @Qualifier("contextRedisTemplate")
+    @Autowired
+    private RedisTemplate<String, byte[]> contextRedisTemplate;
+
+    private final ExecutionCheckpointRepository checkpointRepository;
+    private final ExecutionContextService contextService;
+    private final KahnAlgoService kahnService;
+    private final ReturnHandlerService returnHandler;
+
+    private final Counter checkpointed;
+    private final Counter restored;
+
+    @Value("${workflow.checkpoint.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workflow.checkpoint.idle-ms:900000}")
+    private long idleMs;
+
+    @Value("${workflow.checkpoint.batch-size:50}")
+    private int batchSize;
+
+    public ExecutionCheckpointService(ExecutionCheckpointRepository checkpointRepository,
+                                      ExecutionContextService contextService,
+                                      KahnAlgoService kahnService,
+                                      ReturnHandlerService returnHandler,
+                                      MeterRegistry meterRegistry) {
+        this.checkpointRepository = checkpointRepository;
+        this.contextService = contextService;
+        this.kahnService = kahnService;
+        this.returnHandler = returnHandler;
+
+        this.checkpointed = Counter.builder("workflow.execution.checkpoints")
+                .tag("operation", "checkpoint")
+                .register(meterRegistry);
+        this.restored = Counter.builder("workflow.execution.checkpoints")
+                .tag("operation", "restore")
+                .register(meterRegistry);
+    }
+
+    public List<String> executionKeys(UUID executionId) {
+        List<String> keys = checkpointKeys(executionId);
+        keys.add("execution:" + executionId + OPENAI_KEY_SUFFIX);
+        return keys;
+    }
+
+    private List<String> checkpointKeys(UUID executionId) {
+        List<String> keys = new ArrayList<>();
+        keys.addAll(contextService.executionKeys(executionId));
+        keys.addAll(kahnService.stateKeys(executionId));
+        keys.addAll(returnHandler.returnKeys(executionId));
+        return keys;
+    }
+
+    public void touch(RedisConnection connection, UUID executionId) {
+        if (enabled) {
+            connection.zSetCommands().zAdd(ACTIVITY_KEY.getBytes(StandardCharsets.UTF_8), System.currentTimeMillis(),
+                    executionId.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public void forget(UUID executionId) {
+        customStringRedisTemplate.opsForZSet().remove(ACTIVITY_KEY, executionId.toString());
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.checkpoint.poll-interval-ms:60000}")
+    public void checkpointIdleExecutions() {
+        if (!enabled) {
+            return;
+        }
+
+        List<String> idle = customStringRedisTemplate.execute(CLAIM_IDLE_EXECUTIONS_SCRIPT, List.of(ACTIVITY_KEY),
+                String.valueOf(System.currentTimeMillis() - idleMs), String.valueOf(batchSize));
+        if (idle == null) {
+            return;
+        }
+
+        for (int i = 0; i + 1 < idle.size(); i += 2) {
+            checkpoint(UUID.fromString(idle.get(i)), idle.get(i + 1));
+        }
+    }
+
+    private void checkpoint(UUID executionId, String claimedScore) {
+        List<String> keys = checkpointKeys(executionId);
+
+        try {
+            Map<String, byte[]> dumps = contextRedisTemplate.execute((RedisCallback<Map<String, byte[]>>) connection -> {
+                Map<String, byte[]> result = new LinkedHashMap<>();
+                for (String key : keys) {
+                    byte[] dump = connection.keyCommands().dump(key.getBytes(StandardCharsets.UTF_8));
+                    if (dump != null) {
+                        result.put(key, dump);
+                    }
+                }
+                return result;
+            });
+            if (dumps == null || dumps.isEmpty()) {
+                releaseClaim(executionId, claimedScore);
+                return;
+            }
+
+            byte[] snapshot = encode(dumps);
+            checkpointRepository.save(ExecutionCheckpoint.builder()
+                    .executionId(executionId)
+                    .snapshot(snapshot)
+                    .keyCount(dumps.size())
+                    .sizeBytes(snapshot.length)
+                    .build());
+
+            List<String> scriptKeys = new ArrayList<>();
+            scriptKeys.add(ACTIVITY_KEY);
+            scriptKeys.addAll(keys);
+            Long evicted = customStringRedisTemplate.execute(EVICT_IDLE_EXECUTION_SCRIPT, scriptKeys,
+                    executionId.toString());
+
+            if (evicted == null || evicted == 0) {
+                checkpointRepository.deleteById(executionId);
+                log.info("Execution {} became active while checkpointing, keeping it in Redis", executionId);
+                return;
+            }
+
+            contextService.evictCached(executionId);
+            checkpointed.increment();
+            log.info("Checkpointed idle execution {} ({} keys, {} bytes)", executionId, dumps.size(), snapshot.length);
+        } catch (Exception e) {
+            log.warn("Failed to checkpoint execution: {}", executionId, e);
+            releaseClaim(executionId, claimedScore);
+        }
+    }
+
+    private void releaseClaim(UUID executionId, String claimedScore) {
+        try {
+            customStringRedisTemplate.execute(RELEASE_IDLE_CLAIM_SCRIPT, List.of(ACTIVITY_KEY),
+                    executionId.toString(), claimedScore);
+        } catch (Exception e) {
+            log.warn("Failed to release checkpoint claim for execution: {}", executionId, e);
+        }
+    }
+
+    public boolean restore(UUID executionId) {
+        if (!enabled) {
+            return false;
+        }
+
+        ExecutionCheckpoint checkpoint = checkpointRepository.findById(executionId).orElse(null);
+        if (checkpoint == null) {
+            return restoredConcurrently(executionId);
+        }
+
+        Map<String, byte[]> dumps = decode(checkpoint.getSnapshot());
+        Long restoredKeys = contextRedisTemplate.execute((RedisCallback<Long>) connection -> {
+            Long count = connection.scriptingCommands().eval(
+                    RESTORE_CHECKPOINT_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8),
+                    ReturnType.INTEGER, dumps.size() + 1, restoreArguments(executionId, dumps));
+            if (count != null && count >= 0) {
+                touch(connection, executionId);
+            }
+            return count;
+        });
+
+        if (restoredKeys == null || restoredKeys < 0) {
+            log.info("Execution {} is being restored by another consumer", executionId);
+            return restoredConcurrently(executionId);
+        }
+
+        checkpointRepository.deleteById(executionId);
+        restored.increment();
+        log.info("Restored execution {} from checkpoint ({} of {} keys)", executionId, restoredKeys, dumps.size());
+        return true;
+    }
+
+    private boolean restoredConcurrently(UUID executionId) {
+        return Boolean.TRUE.equals(customStringRedisTemplate.hasKey(RESTORE_MARKER_PREFIX + executionId))
+                && contextService.hasContext(executionId);
+    }
+
+    private byte[][] restoreArguments(UUID executionId, Map<String, byte[]> dumps) {
+        List<byte[]> keysAndArgs = new ArrayList<>();
+        keysAndArgs.add((RESTORE_MARKER_PREFIX + executionId).getBytes(StandardCharsets.UTF_8));
+        dumps.keySet().forEach(key -> keysAndArgs.add(key.getBytes(StandardCharsets.UTF_8)));
+        keysAndArgs.add(String.valueOf(RESTORED_EXPIRATION.toMillis()).getBytes(StandardCharsets.UTF_8));
+        keysAndArgs.add(String.valueOf(RESTORE_MARKER_EXPIRATION.toMillis()).getBytes(StandardCharsets.UTF_8));
+        keysAndArgs.addAll(dumps.values());
+        return keysAndArgs.toArray(byte[][]::new);
+    }
+
+    public void discard(UUID executionId) {
+        if (checkpointRepository.existsById(executionId)) {
+            checkpointRepository.deleteById(executionId);
+        }
+    }
+
+    private byte[] encode(Map<String, byte[]> dumps) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(dumps.size());
+            for (Map.Entry<String, byte[]> entry : dumps.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private Map<String, byte[]> decode(byte[] snapshot) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(snapshot)))) {
+            int count = in.readInt();
+            Map<String, byte[]> dumps = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                byte[] dump = new byte[in.readInt()];
+                in.readFully(dump);
+                dumps.put(key, dump);
+            }
+            return dumps;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt execution checkpoint", e);
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.marcella.backend.services;
 
+import com.marcella.backend.utils.WorkflowCodec;
 import com.marcella.backend.workflow.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,58 +30,198 @@ public class ExecutionContextService {
     @Autowired
     private RedisTemplate<String, String> customStringRedisTemplate;
 
+    @Qualifier("contextRedisTemplate")
+    @Autowired
+    private RedisTemplate<String, byte[]> contextRedisTemplate;
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final WorkflowCodec codec;
     private final KahnAlgoService kahnAlgoService;
+    private final ExecutionStateNearCache nearCache;
 
     private static final String CONTEXT_KEY = "execution:context:";
-    private static final String DEPENDENCY_KEY = "execution:dependencies:";
     private static final String READY_NODES_KEY = "execution:ready:";
     private static final Duration DEFAULT_EXPIRATION = Duration.ofHours(24);
 
+    private static final String META_FIELD = "meta";
+    private static final String GLOBALS_FIELD = "globals";
+    private static final String OUTPUT_FIELD_PREFIX = "output:";
+
     public ExecutionContext getContext(UUID executionId) {
-        return (ExecutionContext) redisTemplate.opsForValue().get(CONTEXT_KEY + executionId);
+        Map<Object, Object> fields = contextRedisTemplate.opsForHash().entries(CONTEXT_KEY + executionId);
+        if (fields.isEmpty()) {
+            return null;
+        }
+
+        ExecutionContext context = decode(fields.get(META_FIELD), ExecutionContext.class);
+        if (context == null) {
+            return null;
+        }
+
+        context.setGlobalVariables(asMap(decode(fields.get(GLOBALS_FIELD), Map.class)));
+        fields.forEach((field, value) -> {
+            String name = (String) field;
+            if (name.startsWith(OUTPUT_FIELD_PREFIX)) {
+                context.getNodeOutputs().put(name.substring(OUTPUT_FIELD_PREFIX.length()),
+                        asMap(decode(value, Map.class)));
+            }
+        });
+        return context;
     }
 
-    public void updateNodeOutput(UUID executionId, String nodeId, Map<String, Object> output) {
-        String contextKey = CONTEXT_KEY + executionId;
-        ExecutionContext context = getContext(executionId);
+    public ExecutionContext getContext(UUID executionId, Collection<String> nodeIds) {
+        ExecutionContext cached = getCachedContext(executionId, nodeIds);
+        if (cached != null) {
+            return cached;
+        }
 
-        if (context != null) {
-            context.getNodeOutputs().put(nodeId, output);
-            redisTemplate.opsForValue().set(contextKey, context);
+        List<Object> values = contextRedisTemplate.opsForHash()
+                .multiGet(CONTEXT_KEY + executionId, new ArrayList<>(contextFields(nodeIds)));
+        return decodeContext(executionId, values, nodeIds);
+    }
+
+    public ExecutionContext getCachedContext(UUID executionId, Collection<String> nodeIds) {
+        List<byte[]> cached = nearCache.get(executionId, contextFields(nodeIds));
+        return cached != null ? decodeValues(new ArrayList<>(cached), nodeIds) : null;
+    }
+
+    public void readContext(RedisConnection connection, UUID executionId, Collection<String> nodeIds) {
+        byte[][] fields = contextFields(nodeIds).stream().map(this::bytes).toArray(byte[][]::new);
+        connection.hashCommands().hMGet(bytes(CONTEXT_KEY + executionId), fields);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ExecutionContext decodeContext(UUID executionId, Object result, Collection<String> nodeIds) {
+        List<Object> values = (List<Object>) result;
+        if (values.get(0) != null) {
+            nearCache.putAll(executionId, contextFields(nodeIds), values);
         }
+        return decodeValues(values, nodeIds);
     }
 
-    public void addReadyNodes(UUID executionId, List<String> nodeIds) {
-        String readyKey = READY_NODES_KEY + executionId;
-        nodeIds.forEach(nodeId -> redisTemplate.opsForList().rightPush(readyKey, nodeId));
-        redisTemplate.expire(readyKey, Duration.ofHours(24));
+    private ExecutionContext decodeValues(List<Object> values, Collection<String> nodeIds) {
+        ExecutionContext context = decode(values.get(0), ExecutionContext.class);
+        if (context == null) {
+            return null;
+        }
+
+        context.setGlobalVariables(asMap(decode(values.get(1), Map.class)));
+        int index = 2;
+        for (String nodeId : nodeIds) {
+            Object output = values.get(index++);
+            if (output != null) {
+                context.getNodeOutputs().put(nodeId, asMap(decode(output, Map.class)));
+            }
+        }
+        return context;
+    }
+
+    private List<String> contextFields(Collection<String> nodeIds) {
+        List<String> fields = new ArrayList<>();
+        fields.add(META_FIELD);
+        fields.add(GLOBALS_FIELD);
+        nodeIds.forEach(nodeId -> fields.add(OUTPUT_FIELD_PREFIX + nodeId));
+        return fields;
+    }
+
+    public void readMetadata(RedisConnection connection, UUID executionId) {
+        connection.hashCommands().hGet(bytes(CONTEXT_KEY + executionId), bytes(META_FIELD));
+    }
+
+    public boolean hasContext(UUID executionId) {
+        return Boolean.TRUE.equals(contextRedisTemplate.opsForHash().hasKey(CONTEXT_KEY + executionId, META_FIELD));
+    }
+
+    public ExecutionContext decodeMetadata(Object result) {
+        return decode(result, ExecutionContext.class);
+    }
+
+    public void writeNodeOutput(RedisConnection connection, UUID executionId, String nodeId,
+                                Map<String, Object> output) {
+        byte[] contextKey = bytes(CONTEXT_KEY + executionId);
+        byte[] encoded = codec.encode(output);
+
+        connection.hashCommands().hSet(contextKey, bytes(OUTPUT_FIELD_PREFIX + nodeId), encoded);
+        connection.keyCommands().expire(contextKey, DEFAULT_EXPIRATION.toSeconds());
+        nearCache.put(executionId, OUTPUT_FIELD_PREFIX + nodeId, encoded);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void writeReadyNodes(RedisConnection connection, UUID executionId, List<String> nodeIds) {
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        byte[] readyKey = bytes(READY_NODES_KEY + executionId);
+
+        connection.listCommands().rPush(readyKey, nodeIds.stream().map(serializer::serialize).toArray(byte[][]::new));
+        connection.keyCommands().expire(readyKey, DEFAULT_EXPIRATION.toSeconds());
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void updateGlobalVariables(UUID executionId, Map<String, Object> globalVariables) {
+        contextRedisTemplate.opsForHash().put(CONTEXT_KEY + executionId, GLOBALS_FIELD, codec.encode(globalVariables));
+        nearCache.invalidate(executionId);
     }
 
     public void storeContext(UUID executionId, ExecutionContext context) {
         String contextKey = CONTEXT_KEY + executionId;
-        redisTemplate.opsForValue().set(contextKey, context);
-        redisTemplate.expire(contextKey, DEFAULT_EXPIRATION);
+
+        ExecutionContext metadata = ExecutionContext.builder()
+                .executionId(context.getExecutionId())
+                .workflowId(context.getWorkflowId())
+                .workflowVersion(context.getWorkflowVersion())
+                .userId(context.getUserId())
+                .requestedReturnVariables(context.getRequestedReturnVariables())
+                .status(context.getStatus())
+                .startTime(context.getStartTime())
+                .endTime(context.getEndTime())
+                .build();
+
+        Map<String, byte[]> fields = new HashMap<>();
+        fields.put(META_FIELD, codec.encode(metadata));
+        fields.put(GLOBALS_FIELD, codec.encode(context.getGlobalVariables()));
+        context.getNodeOutputs().forEach((nodeId, output) ->
+                fields.put(OUTPUT_FIELD_PREFIX + nodeId, codec.encode(output)));
+
+        contextRedisTemplate.opsForHash().putAll(contextKey, fields);
+        contextRedisTemplate.expire(contextKey, DEFAULT_EXPIRATION);
+        fields.forEach((field, value) -> nearCache.put(executionId, field, value));
+    }
+
+    private <T> T decode(Object value, Class<T> type) {
+        if (!(value instanceof byte[] bytes) || bytes.length == 0) {
+            return null;
+        }
+
+        if (WorkflowCodec.isLegacyTypedJson(bytes)) {
+            Object legacy = redisTemplate.getHashValueSerializer().deserialize(bytes);
+            return type.isInstance(legacy) ? type.cast(legacy) : null;
+        }
+        return codec.decode(bytes, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> asMap(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : new HashMap<>();
     }
 
-    public void updateContext(UUID executionId, ExecutionContext context) {
-        storeContext(executionId, context);
+    public List<String> executionKeys(UUID executionId) {
+        return List.of(CONTEXT_KEY + executionId, READY_NODES_KEY + executionId);
     }
 
-    public void storeDependencyGraph(UUID executionId, DependencyGraph graph) {
-        String dependencyKey = DEPENDENCY_KEY + executionId;
-        redisTemplate.opsForValue().set(dependencyKey, graph);
-        redisTemplate.expire(dependencyKey, DEFAULT_EXPIRATION);
+    public void evictCached(UUID executionId) {
+        nearCache.invalidate(executionId);
     }
 
     public void clearExecution(UUID executionId) {
         String contextKey = CONTEXT_KEY + executionId;
-        String dependencyKey = DEPENDENCY_KEY + executionId;
         String readyKey = READY_NODES_KEY + executionId;
 
         redisTemplate.delete(contextKey);
-        redisTemplate.delete(dependencyKey);
         redisTemplate.delete(readyKey);
+        kahnAlgoService.clearExecutionState(executionId);
+        nearCache.invalidate(executionId);
 
         log.info("Cleared execution data for: {}", executionId);
     }
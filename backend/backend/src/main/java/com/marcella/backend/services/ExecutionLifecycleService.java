@@ -0,0 +1,155 @@
+package com.marcella.backend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class ExecutionLifecycleService {
+
+    private static final String REAP_KEY = "workflow:lifecycle:reap";
+
+    @Qualifier("customStringRedisTemplate")
+    @Autowired
+    private RedisTemplate<String, String> customStringRedisTemplate;
+
+    private final ExecutionContextService contextService;
+    private final ExecutionCheckpointService checkpointService;
+    private final PayloadOffloadService payloadService;
+
+    private final DistributionSummary executionBytes;
+    private final Counter reaped;
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final AtomicLong pendingReaps = new AtomicLong();
+
+    @Value("${workflow.lifecycle.completed-grace-ms:300000}")
+    private long completedGraceMs;
+
+    @Value("${workflow.lifecycle.failed-grace-ms:3600000}")
+    private long failedGraceMs;
+
+    @Value("${workflow.lifecycle.batch-size:100}")
+    private int batchSize;
+
+    @Value("${workflow.lifecycle.memory-accounting:true}")
+    private boolean memoryAccounting;
+
+    public ExecutionLifecycleService(ExecutionContextService contextService,
+                                     ExecutionCheckpointService checkpointService,
+                                     PayloadOffloadService payloadService,
+                                     MeterRegistry meterRegistry) {
+        this.contextService = contextService;
+        this.checkpointService = checkpointService;
+        this.payloadService = payloadService;
+
+        this.executionBytes = DistributionSummary.builder("workflow.execution.redis.bytes")
+                .description("Redis memory held by an execution when its state is released")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.reaped = Counter.builder("workflow.execution.reaped")
+                .description("Executions whose Redis state was released")
+                .register(meterRegistry);
+        Gauge.builder("workflow.redis.used.memory", usedMemory, AtomicLong::get)
+                .description("Total memory reported by Redis")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("workflow.execution.pending.reaps", pendingReaps, AtomicLong::get)
+                .description("Finished executions waiting for their grace period to pass")
+                .register(meterRegistry);
+    }
+
+    public void scheduleRelease(UUID executionId, boolean failed) {
+        long graceMs = failed ? failedGraceMs : completedGraceMs;
+        Instant releaseAt = Instant.now().plus(Duration.ofMillis(graceMs));
+        contextService.evictCached(executionId);
+        checkpointService.forget(executionId);
+        customStringRedisTemplate.opsForZSet().add(REAP_KEY, executionId.toString(), releaseAt.toEpochMilli());
+        log.debug("Execution {} state will be released at {}", executionId, releaseAt);
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.lifecycle.poll-interval-ms:10000}")
+    public void releaseExpiredExecutions() {
+        Set<String> due = customStringRedisTemplate.opsForZSet()
+                .rangeByScore(REAP_KEY, 0, System.currentTimeMillis(), 0, batchSize);
+
+        if (due != null) {
+            for (String executionId : due) {
+                Long removed = customStringRedisTemplate.opsForZSet().remove(REAP_KEY, executionId);
+                if (removed != null && removed > 0) {
+                    release(UUID.fromString(executionId));
+                }
+            }
+        }
+
+        Long pending = customStringRedisTemplate.opsForZSet().zCard(REAP_KEY);
+        pendingReaps.set(pending != null ? pending : 0);
+        if (memoryAccounting) {
+            usedMemory.set(redisUsedMemory());
+        }
+    }
+
+    public void release(UUID executionId) {
+        List<String> keys = checkpointService.executionKeys(executionId);
+
+        try {
+            if (memoryAccounting) {
+                executionBytes.record(memoryUsage(keys));
+            }
+
+            customStringRedisTemplate.delete(keys);
+            contextService.evictCached(executionId);
+            checkpointService.discard(executionId);
+            payloadService.release(executionId);
+            reaped.increment();
+
+            log.info("Released execution state for: {}", executionId);
+        } catch (Exception e) {
+            log.warn("Failed to release execution state for: {}", executionId, e);
+        }
+    }
+
+    private long memoryUsage(List<String> keys) {
+        Long bytes = customStringRedisTemplate.execute((RedisCallback<Long>) connection -> {
+            long total = 0;
+            for (String key : keys) {
+                Object usage = connection.execute("MEMORY",
+                        "USAGE".getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8));
+                if (usage instanceof Number number) {
+                    total += number.longValue();
+                }
+            }
+            return total;
+        });
+        return bytes != null ? bytes : 0;
+    }
+
+    private long redisUsedMemory() {
+        try {
+            Properties info = customStringRedisTemplate.execute(
+                    (RedisCallback<Properties>) connection -> connection.serverCommands().info("memory"));
+            return info != null ? Long.parseLong(info.getProperty("used_memory", "0")) : 0;
+        } catch (Exception e) {
+            log.debug("Failed to read Redis memory info", e);
+            return usedMemory.get();
+        }
+    }
+}
@@ -30,6 +30,20 @@ public class ExecutionService {
         return executionRepository.save(execution);
     }
 
+    public Execution recordFailedStart(Workflows workflow, String errorMessage) {
+        Instant now = Instant.now();
+        Execution execution = Execution.builder()
+                .workflow(workflow)
+                .owner(workflow.getOwner())
+                .status("FAILED")
+                .error(errorMessage)
+                .startedAt(now)
+                .completedAt(now)
+                .build();
+
+        return executionRepository.save(execution);
+    }
+
     public void completeExecution(Execution execution, Map<String, Object> outputData) {
         try {
             execution.setStatus("COMPLETED");
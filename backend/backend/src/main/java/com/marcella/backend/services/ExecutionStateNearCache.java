@@ -0,0 +1,151 @@
+package com.marcella.backend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class ExecutionStateNearCache implements MessageListener {
+
+    private static final String INVALIDATION_CHANNEL = "workflow:context:invalidate";
+    private static final byte[] ABSENT = new byte[0];
+
+    private final RedisTemplate<String, String> customStringRedisTemplate;
+    private final boolean enabled;
+    private final long maxBytes;
+
+    private final LinkedHashMap<UUID, CachedExecution> executions = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ExecutionStateNearCache(@Qualifier("customStringRedisTemplate") RedisTemplate<String, String> customStringRedisTemplate,
+                                   RedisMessageListenerContainer listenerContainer,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${workflow.context.near-cache.enabled:true}") boolean enabled,
+                                   @Value("${workflow.context.near-cache.max-bytes:67108864}") long maxBytes) {
+        this.customStringRedisTemplate = customStringRedisTemplate;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+
+        if (enabled) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+        }
+
+        this.hits = Counter.builder("workflow.context.near.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("workflow.context.near.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("workflow.context.near.cache.evictions")
+                .register(meterRegistry);
+        Gauge.builder("workflow.context.near.cache.bytes", cachedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public List<byte[]> get(UUID executionId, List<String> fields) {
+        if (!enabled) {
+            return null;
+        }
+
+        synchronized (executions) {
+            CachedExecution execution = executions.get(executionId);
+            if (execution != null && execution.fields.keySet().containsAll(fields)) {
+                hits.increment();
+                return fields.stream().map(execution.fields::get).map(value -> value == ABSENT ? null : value).toList();
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    public void put(UUID executionId, String field, byte[] value) {
+        if (!enabled || value == null) {
+            return;
+        }
+
+        synchronized (executions) {
+            CachedExecution execution = executions.computeIfAbsent(executionId, id -> new CachedExecution());
+            byte[] previous = execution.fields.put(field, value);
+            long delta = value.length - (previous != null ? previous.length : 0);
+            execution.bytes += delta;
+            cachedBytes.addAndGet(delta);
+            evictOverflow();
+        }
+    }
+
+    public void putAll(UUID executionId, List<String> fields, List<Object> values) {
+        for (int i = 0; i < fields.size(); i++) {
+            put(executionId, fields.get(i), values.get(i) instanceof byte[] value ? value : ABSENT);
+        }
+    }
+
+    public void invalidate(UUID executionId) {
+        if (!enabled) {
+            return;
+        }
+
+        evict(executionId);
+        try {
+            customStringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, executionId.toString());
+        } catch (Exception e) {
+            log.warn("Failed to publish near cache invalidation for execution: {}", executionId, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            evict(UUID.fromString(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring malformed near cache invalidation: {}", message);
+        }
+    }
+
+    private void evict(UUID executionId) {
+        synchronized (executions) {
+            CachedExecution removed = executions.remove(executionId);
+            if (removed != null) {
+                cachedBytes.addAndGet(-removed.bytes);
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedExecution> eldest = executions.values().iterator();
+        while (cachedBytes.get() > maxBytes && eldest.hasNext()) {
+            CachedExecution execution = eldest.next();
+            eldest.remove();
+            cachedBytes.addAndGet(-execution.bytes);
+            evictions.increment();
+        }
+    }
+
+    private static class CachedExecution {
+        private final Map<String, byte[]> fields = new HashMap<>();
+        private long bytes;
+    }
+}
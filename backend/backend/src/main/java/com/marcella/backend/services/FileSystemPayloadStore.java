@@ -0,0 +1,68 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.configurations.PayloadStoreConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "workflow.payload-store.type", havingValue = "filesystem")
+public class FileSystemPayloadStore implements PayloadStore {
+
+    private final PayloadStoreConfig config;
+
+    @Override
+    public String put(UUID executionId, byte[] data) {
+        String reference = executionId + "/" + UUID.randomUUID();
+        Path path = resolve(reference);
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(path, data);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store payload: " + reference, e);
+        }
+        return reference;
+    }
+
+    @Override
+    public byte[] get(String reference) {
+        try {
+            return Files.readAllBytes(resolve(reference));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read payload: " + reference, e);
+        }
+    }
+
+    @Override
+    public void release(UUID executionId) {
+        try {
+            if (FileSystemUtils.deleteRecursively(Path.of(config.getDirectory(), executionId.toString()))) {
+                log.info("Released offloaded payloads for execution: {}", executionId);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to release payloads for execution: {}", executionId, e);
+        }
+    }
+
+    private Path resolve(String reference) {
+        Path root = Path.of(config.getDirectory()).normalize();
+        Path path = root.resolve(reference).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid payload reference: " + reference);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,45 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.entities.WorkflowPayload;
+import com.marcella.backend.repositories.WorkflowPayloadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "workflow.payload-store.type", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcPayloadStore implements PayloadStore {
+
+    private final WorkflowPayloadRepository payloadRepository;
+
+    @Override
+    public String put(UUID executionId, byte[] data) {
+        WorkflowPayload payload = payloadRepository.save(WorkflowPayload.builder()
+                .id(UUID.randomUUID())
+                .executionId(executionId)
+                .data(data)
+                .sizeBytes(data.length)
+                .build());
+        return payload.getId().toString();
+    }
+
+    @Override
+    public byte[] get(String reference) {
+        return payloadRepository.findById(UUID.fromString(reference))
+                .map(WorkflowPayload::getData)
+                .orElse(null);
+    }
+
+    @Override
+    public void release(UUID executionId) {
+        int released = payloadRepository.deleteByExecutionId(executionId);
+        if (released > 0) {
+            log.info("Released {} offloaded payloads for execution: {}", released, executionId);
+        }
+    }
+}
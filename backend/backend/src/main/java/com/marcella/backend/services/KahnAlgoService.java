@@ -1,18 +1,56 @@
 package com.marcella.backend.services;
 
+import com.marcella.backend.utils.TemplateUtils;
 import com.marcella.backend.workflow.DependencyGraph;
+import com.marcella.backend.workflow.ExecutionPlan;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import com.marcella.backend.workflow.NodeCompletionResult;
+import com.marcella.backend.workflow.NodeFailurePolicy;
 import com.marcella.backend.workflow.WorkflowDefinition;
+import com.marcella.backend.workflow.WorkflowNode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class KahnAlgoService {
-    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Qualifier("customStringRedisTemplate")
+    @Autowired
+    private RedisTemplate<String, String> customStringRedisTemplate;
+
+    private static final String IN_DEGREE_KEY = "execution:indegree:";
+    private static final String COMPLETED_KEY = "execution:completed:";
+    private static final String FAILED_KEY = "execution:failed:";
+    private static final String SKIPPED_KEY = "execution:skipped:";
+    private static final String LIVE_INPUTS_KEY = "execution:live:";
+    private static final String ABORTED_KEY = "execution:aborted:";
+    private static final String SEEN_KEY = "execution:seen:";
+    private static final Set<String> BRANCH_HANDLES = Set.of("true", "false");
+    private static final Set<String> NON_FUSABLE_NODE_TYPES = Set.of("delay");
+    private static final Set<String> CHAIN_TERMINATING_NODE_TYPES = Set.of("condition");
+    private static final Duration DEFAULT_EXPIRATION = Duration.ofHours(24);
+
+    private static final String MISSING_STATE = "-2";
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<String>> PROCESS_COMPLETION_SCRIPT =
+            (RedisScript) RedisScript.of(new ClassPathResource("redis/process_completion.lua"), List.class);
 
     public DependencyGraph buildDependencyGraph(WorkflowDefinition workflow) {
         Map<String, List<String>> incomingEdges = new HashMap<>();
@@ -43,6 +81,233 @@ public class KahnAlgoService {
                 .build();
     }
 
+    public ExecutionPlan buildExecutionPlan(WorkflowDefinition workflow, Long version,
+                                            Function<String, String> topicResolver,
+                                            Set<String> inlineNodeTypes,
+                                            Function<String, Set<String>> contextAllowList) {
+        DependencyGraph graph = buildDependencyGraph(workflow);
+
+        Map<String, WorkflowNode> nodes = new LinkedHashMap<>();
+        Map<String, String> topics = new HashMap<>();
+        Set<String> inlineNodes = new HashSet<>();
+        Map<String, NodeFailurePolicy> failurePolicies = new HashMap<>();
+        workflow.getNodes().forEach(node -> {
+            String topic = topicResolver.apply(node.getType());
+            nodes.put(node.getId(), immutableNode(node));
+            topics.put(node.getId(), topic);
+            failurePolicies.put(node.getId(), NodeFailurePolicy.from(
+                    node.getData() != null ? node.getData().get("onError") : null));
+
+            if (WorkflowEventProducer.SPRING_NODES_TOPIC.equals(topic) && inlineNodeTypes.contains(node.getType().toLowerCase())) {
+                inlineNodes.add(node.getId());
+            }
+        });
+
+        Map<String, List<String>> chains = detectChains(graph, nodes, topics, inlineNodes);
+
+        Map<String, Map<String, String>> branchHandles = new HashMap<>();
+        workflow.getEdges().forEach(edge -> {
+            String handle = edge.getSourceHandle();
+            if (handle != null && BRANCH_HANDLES.contains(handle.toLowerCase())) {
+                branchHandles.computeIfAbsent(edge.getSource(), source -> new HashMap<>())
+                        .put(edge.getTarget(), handle.toLowerCase());
+            }
+        });
+        Map<String, Map<String, String>> immutableBranchHandles = new HashMap<>();
+        branchHandles.forEach((source, handles) -> immutableBranchHandles.put(source, Map.copyOf(handles)));
+
+        return ExecutionPlan.builder()
+                .workflowId(workflow.getId())
+                .version(version)
+                .workflowName(workflow.getName())
+                .nodes(Collections.unmodifiableMap(nodes))
+                .incomingEdges(immutableAdjacency(graph.getIncomingEdges()))
+                .outgoingEdges(immutableAdjacency(graph.getOutgoingEdges()))
+                .inDegree(Map.copyOf(graph.getInDegree()))
+                .topics(Map.copyOf(topics))
+                .initialReadyNodes(List.copyOf(getInitialReadyNodes(graph)))
+                .inlineNodes(Set.copyOf(inlineNodes))
+                .chains(Map.copyOf(chains))
+                .branchHandles(Map.copyOf(immutableBranchHandles))
+                .failurePolicies(Map.copyOf(failurePolicies))
+                .contextLayers(Map.copyOf(resolveContextLayers(graph, nodes.keySet())))
+                .contextKeys(contextAllowList != null
+                        ? Map.copyOf(resolveContextKeys(nodes, chains, contextAllowList))
+                        : Map.of())
+                .build();
+    }
+
+    private Map<String, Set<String>> resolveContextKeys(Map<String, WorkflowNode> nodes,
+                                                        Map<String, List<String>> chains,
+                                                        Function<String, Set<String>> contextAllowList) {
+        Map<String, Set<String>> contextKeys = new HashMap<>();
+        for (WorkflowNode node : nodes.values()) {
+            Set<String> keys = referencedContextKeys(node);
+            if (keys != null) {
+                keys.addAll(contextAllowList.apply(node.getType()));
+                contextKeys.put(node.getId(), keys);
+            }
+        }
+
+        chains.forEach((head, chain) -> {
+            Set<String> keys = new HashSet<>();
+            for (String nodeId : chain) {
+                if (!contextKeys.containsKey(nodeId)) {
+                    contextKeys.remove(head);
+                    return;
+                }
+                keys.addAll(contextKeys.get(nodeId));
+            }
+            contextKeys.put(head, keys);
+        });
+
+        Map<String, Set<String>> immutableContextKeys = new HashMap<>();
+        contextKeys.forEach((nodeId, keys) -> immutableContextKeys.put(nodeId, Set.copyOf(keys)));
+        return immutableContextKeys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> referencedContextKeys(WorkflowNode node) {
+        Map<String, Object> data = node.getData() != null ? node.getData() : Map.of();
+        Set<String> keys = new HashSet<>();
+        collectTemplateVariables(data, keys);
+
+        List<Object> directKeys = new ArrayList<>();
+        if ("transform".equalsIgnoreCase(node.getType()) && data.get("mapping") instanceof Map<?, ?> mapping) {
+            directKeys.addAll(mapping.values());
+        }
+        if ("condition".equalsIgnoreCase(node.getType()) && data.get("condition") instanceof Map<?, ?> condition) {
+            directKeys.add(((Map<String, Object>) condition).get("field"));
+        }
+
+        for (Object directKey : directKeys) {
+            String key = String.valueOf(directKey);
+            if (TemplateUtils.hasVariables(key)) {
+                return null;
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private void collectTemplateVariables(Object value, Set<String> keys) {
+        if (value instanceof String template) {
+            keys.addAll(TemplateUtils.extractVariables(template));
+        } else if (value instanceof Map<?, ?> map) {
+            map.values().forEach(nested -> collectTemplateVariables(nested, keys));
+        } else if (value instanceof Collection<?> collection) {
+            collection.forEach(nested -> collectTemplateVariables(nested, keys));
+        }
+    }
+
+    private Map<String, List<String>> resolveContextLayers(DependencyGraph graph, Set<String> nodeIds) {
+        Map<String, List<String>> contextLayers = new HashMap<>();
+
+        for (String nodeId : nodeIds) {
+            List<String> ancestors = new ArrayList<>();
+            Set<String> visited = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>();
+            enqueueDependencies(graph, nodeId, queue);
+
+            while (!queue.isEmpty()) {
+                String ancestor = queue.poll();
+                if (visited.add(ancestor)) {
+                    ancestors.add(ancestor);
+                    enqueueDependencies(graph, ancestor, queue);
+                }
+            }
+
+            contextLayers.put(nodeId, List.copyOf(ancestors));
+        }
+
+        return contextLayers;
+    }
+
+    private void enqueueDependencies(DependencyGraph graph, String nodeId, Deque<String> queue) {
+        List<String> incoming = graph.getIncomingEdges().getOrDefault(nodeId, List.of());
+        for (int i = incoming.size() - 1; i >= 0; i--) {
+            queue.add(incoming.get(i));
+        }
+    }
+
+    private Map<String, List<String>> detectChains(DependencyGraph graph, Map<String, WorkflowNode> nodes,
+                                                   Map<String, String> topics, Set<String> inlineNodes) {
+        Predicate<String> fusable = nodeId -> WorkflowEventProducer.isSpringTopic(topics.get(nodeId))
+                && !inlineNodes.contains(nodeId)
+                && !NON_FUSABLE_NODE_TYPES.contains(nodes.get(nodeId).getType().toLowerCase());
+
+        Map<String, List<String>> chains = new HashMap<>();
+        for (String nodeId : nodes.keySet()) {
+            if (!fusable.test(nodeId)) {
+                continue;
+            }
+
+            List<String> incoming = graph.getIncomingEdges().get(nodeId);
+            if (incoming.size() == 1 && fusable.test(incoming.get(0))
+                    && topics.get(incoming.get(0)).equals(topics.get(nodeId))
+                    && nextInChain(graph, nodes, incoming.get(0)) != null) {
+                continue;
+            }
+
+            List<String> chain = new ArrayList<>();
+            chain.add(nodeId);
+            String next = nextInChain(graph, nodes, nodeId);
+            while (next != null && fusable.test(next) && topics.get(next).equals(topics.get(nodeId))) {
+                chain.add(next);
+                next = nextInChain(graph, nodes, next);
+            }
+
+            if (chain.size() > 1) {
+                chains.put(nodeId, List.copyOf(chain));
+            }
+        }
+        return chains;
+    }
+
+    private String nextInChain(DependencyGraph graph, Map<String, WorkflowNode> nodes, String nodeId) {
+        if (CHAIN_TERMINATING_NODE_TYPES.contains(nodes.get(nodeId).getType().toLowerCase())) {
+            return null;
+        }
+
+        List<String> outgoing = graph.getOutgoingEdges().get(nodeId);
+        if (outgoing.size() != 1) {
+            return null;
+        }
+
+        String next = outgoing.get(0);
+        return graph.getIncomingEdges().get(next).size() == 1 ? next : null;
+    }
+
+    private WorkflowNode immutableNode(WorkflowNode node) {
+        return WorkflowNode.builder()
+                .id(node.getId())
+                .type(node.getType())
+                .data(node.getData() != null ? immutableValue(node.getData()) : null)
+                .assignedService(node.getAssignedService())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T immutableValue(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, nested) -> copy.put(key, immutableValue(nested)));
+            return (T) Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> copy = new ArrayList<>(collection.size());
+            collection.forEach(nested -> copy.add(immutableValue(nested)));
+            return (T) Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private Map<String, List<String>> immutableAdjacency(Map<String, List<String>> adjacency) {
+        Map<String, List<String>> copy = new HashMap<>();
+        adjacency.forEach((nodeId, neighbours) -> copy.put(nodeId, List.copyOf(neighbours)));
+        return Map.copyOf(copy);
+    }
+
     public List<String> getInitialReadyNodes(DependencyGraph graph) {
         return graph.getInDegree().entrySet().stream()
                 .filter(entry -> entry.getValue() == 0)
@@ -50,45 +315,272 @@ public class KahnAlgoService {
                 .collect(Collectors.toList());
     }
 
-    public List<String> processNodeCompletion(UUID executionId, String completedNodeId) {
-        String dependencyKey = "execution:dependencies:" + executionId;
-        DependencyGraph graph = (DependencyGraph) redisTemplate.opsForValue().get(dependencyKey);
+    public void initializeExecutionState(UUID executionId, ExecutionPlan plan) {
+        Map<String, String> inDegree = new HashMap<>();
+        plan.getInDegree().forEach((nodeId, degree) -> inDegree.put(nodeId, String.valueOf(degree)));
+
+        String inDegreeKey = IN_DEGREE_KEY + executionId;
+        customStringRedisTemplate.delete(stateKeys(executionId));
+        customStringRedisTemplate.opsForHash().putAll(inDegreeKey, inDegree);
+        customStringRedisTemplate.expire(inDegreeKey, DEFAULT_EXPIRATION);
+    }
+
+    public NodeCompletionResult processNodeCompletion(UUID executionId, String completedNodeId, int attempt,
+                                                      ExecutionPlan plan, Map<String, Object> output) {
+        return applyAndPropagate(executionId, plan, completionArgs(completedNodeId, attempt, plan, output));
+    }
+
+    public NodeCompletionResult processNodeFailure(UUID executionId, String failedNodeId, int attempt,
+                                                   ExecutionPlan plan) {
+        return applyAndPropagate(executionId, plan,
+                deadEdgeArgs(failedNodeId, "failed", seenToken(failedNodeId, attempt), plan));
+    }
+
+    public List<NodeCompletionResult> processNodeCompletions(UUID executionId, ExecutionPlan plan,
+                                                             List<NodeCompletionMessage> completions) {
+        List<List<String>> transitions = completions.stream()
+                .map(completion -> "FAILED".equals(completion.getStatus())
+                        && plan.getFailurePolicy(completion.getNodeId()) != NodeFailurePolicy.CONTINUE
+                        ? deadEdgeArgs(completion.getNodeId(), "failed",
+                                seenToken(completion.getNodeId(), completion.getAttempt()), plan)
+                        : completionArgs(completion.getNodeId(), completion.getAttempt(), plan, completion.getOutput()))
+                .toList();
+
+        List<String> keys = stateKeys(executionId);
+        List<Object> results;
+        try {
+            results = evalShaPipelined(keys, transitions);
+        } catch (RuntimeException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            customStringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.scriptingCommands().scriptLoad(bytes(PROCESS_COMPLETION_SCRIPT.getScriptAsString())));
+            results = evalShaPipelined(keys, transitions);
+        }
+
+        List<NodeCompletionResult> propagated = new ArrayList<>();
+        for (int i = 0; i < transitions.size(); i++) {
+            @SuppressWarnings("unchecked")
+            List<String> result = (List<String>) results.get(i);
+            propagated.add(propagate(executionId, plan, checkState(executionId, result), i == 0 ? 1 : 0));
+        }
+        return propagated;
+    }
+
+    private List<Object> evalShaPipelined(List<String> keys, List<List<String>> transitions) {
+        String sha = PROCESS_COMPLETION_SCRIPT.getSha1();
+        return customStringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (List<String> args : transitions) {
+                byte[][] keysAndArgs = new byte[keys.size() + args.size()][];
+                for (int i = 0; i < keys.size(); i++) {
+                    keysAndArgs[i] = bytes(keys.get(i));
+                }
+                for (int i = 0; i < args.size(); i++) {
+                    keysAndArgs[keys.size() + i] = bytes(args.get(i));
+                }
+                connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, keys.size(), keysAndArgs);
+            }
+            return null;
+        });
+    }
+
+    private boolean isNoScript(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> completionArgs(String completedNodeId, int attempt, ExecutionPlan plan,
+                                        Map<String, Object> output) {
+        String branch = plan.hasBranches(completedNodeId) ? takenBranch(output) : null;
 
-        if (graph == null) {
-            throw new IllegalStateException("Dependency graph not found for execution: " + executionId);
+        List<String> args = new ArrayList<>();
+        args.add(completedNodeId);
+        args.add("completed");
+        args.add(seenToken(completedNodeId, attempt));
+        for (String dependent : plan.getDependents(completedNodeId)) {
+            String handle = plan.getBranchHandle(completedNodeId, dependent);
+            boolean live = handle == null || branch == null || handle.equals(branch);
+            args.add(dependent);
+            args.add(live ? "1" : "0");
         }
+        return args;
+    }
 
-        graph.getCompletedNodes().add(completedNodeId);
+    public List<String> findUndispatchedReadyNodes(UUID executionId, String nodeId, ExecutionPlan plan) {
+        List<String> readyNodes = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        List<String> frontier = new ArrayList<>(plan.getDependents(nodeId));
 
-        List<String> newlyReadyNodes = new ArrayList<>();
+        while (!frontier.isEmpty()) {
+            List<String> level = frontier.stream().filter(visited::add).toList();
+            frontier = new ArrayList<>();
+            if (level.isEmpty()) {
+                continue;
+            }
 
-        List<String> dependentNodes = graph.getOutgoingEdges().get(completedNodeId);
-        for (String dependentNode : dependentNodes) {
+            List<Object> state = customStringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String dependent : level) {
+                    connection.hashCommands().hGet(bytes(IN_DEGREE_KEY + executionId), bytes(dependent));
+                    connection.hashCommands().hGet(bytes(LIVE_INPUTS_KEY + executionId), bytes(dependent));
+                    connection.setCommands().sIsMember(bytes(COMPLETED_KEY + executionId), bytes(dependent));
+                    connection.setCommands().sIsMember(bytes(FAILED_KEY + executionId), bytes(dependent));
+                    connection.setCommands().sIsMember(bytes(SKIPPED_KEY + executionId), bytes(dependent));
+                }
+                return null;
+            });
 
-            int currentInDegree = graph.getInDegree().get(dependentNode);
-            graph.getInDegree().put(dependentNode, currentInDegree - 1);
+            for (int i = 0; i < level.size(); i++) {
+                String dependent = level.get(i);
+                int offset = i * 5;
+                boolean completed = Boolean.TRUE.equals(state.get(offset + 2));
+                boolean finished = completed || Boolean.TRUE.equals(state.get(offset + 3))
+                        || Boolean.TRUE.equals(state.get(offset + 4));
 
-            if (currentInDegree - 1 == 0) {
-                newlyReadyNodes.add(dependentNode);
+                if (completed && plan.isInline(dependent)) {
+                    frontier.addAll(plan.getDependents(dependent));
+                } else if (!finished && "0".equals(state.get(offset))
+                        && Long.parseLong(String.valueOf(Optional.ofNullable(state.get(offset + 1)).orElse("0"))) > 0) {
+                    readyNodes.add(dependent);
+                }
             }
         }
+        return readyNodes;
+    }
 
-        redisTemplate.opsForValue().set(dependencyKey, graph);
+    public void readCompletionSeen(RedisConnection connection, UUID executionId, String nodeId, int attempt) {
+        connection.setCommands().sIsMember(bytes(SEEN_KEY + executionId), bytes(seenToken(nodeId, attempt)));
+    }
 
-        return newlyReadyNodes;
+    public void readAborted(RedisConnection connection, UUID executionId) {
+        connection.keyCommands().exists(bytes(ABORTED_KEY + executionId));
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void markAborted(UUID executionId) {
+        customStringRedisTemplate.opsForValue().set(ABORTED_KEY + executionId, "1", DEFAULT_EXPIRATION);
+    }
+
+    public boolean isAborted(UUID executionId) {
+        return Boolean.TRUE.equals(customStringRedisTemplate.hasKey(ABORTED_KEY + executionId));
+    }
+
+    private NodeCompletionResult applyAndPropagate(UUID executionId, ExecutionPlan plan, List<String> args) {
+        return propagate(executionId, plan, applyTransition(executionId, args), 1);
+    }
+
+    private NodeCompletionResult propagate(UUID executionId, ExecutionPlan plan, List<String> result,
+                                           int transitions) {
+
+        long remaining = Long.parseLong(result.get(0));
+        if (remaining < 0) {
+            return NodeCompletionResult.builder()
+                    .readyNodes(List.of())
+                    .skippedNodes(List.of())
+                    .duplicate(true)
+                    .transitions(transitions)
+                    .build();
+        }
+
+        int readyCount = Integer.parseInt(result.get(1));
+        List<String> readyNodes = new ArrayList<>(result.subList(2, 2 + readyCount));
+        Deque<String> pendingSkips = new ArrayDeque<>(result.subList(2 + readyCount, result.size()));
+        List<String> skippedNodes = new ArrayList<>();
+
+        while (!pendingSkips.isEmpty()) {
+            String skippedNodeId = pendingSkips.poll();
+
+            List<String> skipResult = applyTransition(executionId, deadEdgeArgs(skippedNodeId, "skipped", "", plan));
+            transitions++;
+            long skipRemaining = Long.parseLong(skipResult.get(0));
+            if (skipRemaining < 0) {
+                continue;
+            }
+
+            remaining = skipRemaining;
+            skippedNodes.add(skippedNodeId);
+
+            int skipReadyCount = Integer.parseInt(skipResult.get(1));
+            readyNodes.addAll(skipResult.subList(2, 2 + skipReadyCount));
+            pendingSkips.addAll(skipResult.subList(2 + skipReadyCount, skipResult.size()));
+        }
+
+        return NodeCompletionResult.builder()
+                .readyNodes(readyNodes)
+                .skippedNodes(skippedNodes)
+                .remainingNodes(remaining)
+                .transitions(transitions)
+                .build();
+    }
+
+    private List<String> deadEdgeArgs(String nodeId, String outcome, String seenToken, ExecutionPlan plan) {
+        List<String> args = new ArrayList<>();
+        args.add(nodeId);
+        args.add(outcome);
+        args.add(seenToken);
+        for (String dependent : plan.getDependents(nodeId)) {
+            args.add(dependent);
+            args.add("0");
+        }
+        return args;
+    }
+
+    private String seenToken(String nodeId, int attempt) {
+        return nodeId + "#" + attempt;
+    }
+
+    private List<String> applyTransition(UUID executionId, List<String> args) {
+        return checkState(executionId, customStringRedisTemplate.execute(
+                PROCESS_COMPLETION_SCRIPT, stateKeys(executionId), args.toArray()));
+    }
+
+    private List<String> checkState(UUID executionId, List<String> result) {
+        if (result == null || result.isEmpty() || MISSING_STATE.equals(result.get(0))) {
+            throw new IllegalStateException("Dependency state not found for execution: " + executionId);
+        }
+        return result;
+    }
+
+    private String takenBranch(Map<String, Object> output) {
+        if (output == null) {
+            return null;
+        }
+
+        Object branch = output.get("condition_result");
+        if (branch == null) {
+            branch = output.get("branch");
+        }
+        return branch != null ? String.valueOf(branch).toLowerCase() : null;
     }
 
     public boolean isWorkflowComplete(UUID executionId) {
-        String dependencyKey = "execution:dependencies:" + executionId;
-        DependencyGraph graph = (DependencyGraph) redisTemplate.opsForValue().get(dependencyKey);
+        Long totalNodes = customStringRedisTemplate.opsForHash().size(IN_DEGREE_KEY + executionId);
+        if (totalNodes == null || totalNodes == 0) return false;
 
-        if (graph == null) return false;
+        Long completedNodes = customStringRedisTemplate.opsForSet().size(COMPLETED_KEY + executionId);
+        Long failedNodes = customStringRedisTemplate.opsForSet().size(FAILED_KEY + executionId);
+        Long skippedNodes = customStringRedisTemplate.opsForSet().size(SKIPPED_KEY + executionId);
 
-        int totalNodes = graph.getInDegree().size();
-        int completedNodes = graph.getCompletedNodes().size();
-        int failedNodes = graph.getFailedNodes().size();
+        return (nullToZero(completedNodes) + nullToZero(failedNodes) + nullToZero(skippedNodes)) == totalNodes;
+    }
 
-        return (completedNodes + failedNodes) == totalNodes;
+    public void clearExecutionState(UUID executionId) {
+        customStringRedisTemplate.delete(stateKeys(executionId));
     }
-}
 
+    public List<String> stateKeys(UUID executionId) {
+        return List.of(IN_DEGREE_KEY + executionId, COMPLETED_KEY + executionId, FAILED_KEY + executionId,
+                SKIPPED_KEY + executionId, LIVE_INPUTS_KEY + executionId, SEEN_KEY + executionId);
+    }
+
+    private long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,195 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.entities.OutboxEvent;
+import com.marcella.backend.repositories.OutboxEventRepository;
+import com.marcella.backend.utils.WorkflowCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final WorkflowCodec codec;
+
+    private final Counter relayed;
+    private final Counter relayFailures;
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+
+    @Qualifier("outboxRelayPool")
+    @Autowired
+    private ThreadPoolTaskExecutor outboxRelayPool;
+
+    @Value("${workflow.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workflow.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${workflow.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    public OutboxService(OutboxEventRepository outboxRepository,
+                         @Qualifier("outboxKafkaTemplate") KafkaTemplate<String, Object> kafkaTemplate,
+                         TransactionTemplate transactionTemplate,
+                         EntityManagerFactory entityManagerFactory,
+                         WorkflowCodec codec,
+                         MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.codec = codec;
+
+        this.relayed = Counter.builder("workflow.outbox.relayed")
+                .description("Outbox events published to Kafka")
+                .register(meterRegistry);
+        this.relayFailures = Counter.builder("workflow.outbox.relay.failures")
+                .description("Outbox events that failed to publish and will be retried")
+                .register(meterRegistry);
+    }
+
+    public boolean isActive() {
+        return enabled && TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.hasResource(entityManagerFactory);
+    }
+
+    public void enqueue(String topic, UUID executionId, Object message) {
+        outboxRepository.save(OutboxEvent.builder()
+                .executionId(executionId)
+                .topic(topic)
+                .messageKey(executionId != null ? executionId.toString() : null)
+                .payloadType(message.getClass().getName())
+                .payload(codec.encode(message))
+                .build());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestRelay();
+                }
+            });
+        }
+    }
+
+    private void requestRelay() {
+        if (!relayRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            outboxRelayPool.execute(() -> {
+                relayRequested.set(false);
+                relay();
+            });
+        } catch (RuntimeException e) {
+            relayRequested.set(false);
+            log.warn("Failed to trigger an outbox relay, the scheduled poll will pick the events up", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.outbox.poll-interval-ms:200}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+
+        Integer relayedCount;
+        do {
+            relayedCount = transactionTemplate.execute(status -> relayBatch());
+        } while (relayedCount != null && relayedCount == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, Deque<OutboxEvent>> byExecution = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            byExecution.computeIfAbsent(event.getExecutionId(), id -> new ArrayDeque<>()).add(event);
+        }
+
+        List<OutboxEvent> sent = new ArrayList<>();
+        while (!byExecution.isEmpty()) {
+            Map<OutboxEvent, CompletableFuture<?>> sends = new LinkedHashMap<>();
+            byExecution.values().forEach(pending -> sends.put(pending.peek(), send(pending.peek())));
+
+            awaitSends(sends.values());
+
+            sends.forEach((event, send) -> {
+                if (send.isDone() && !send.isCompletedExceptionally()) {
+                    sent.add(event);
+                    byExecution.get(event.getExecutionId()).poll();
+                } else {
+                    relayFailures.increment();
+                    byExecution.remove(event.getExecutionId());
+                    log.warn("Failed to relay outbox event {} to {}, holding back the rest of execution {}",
+                            event.getId(), event.getTopic(), event.getExecutionId(),
+                            send.handle((result, failure) -> failure).getNow(null));
+                }
+            });
+            byExecution.values().removeIf(Deque::isEmpty);
+        }
+
+        outboxRepository.deleteAllInBatch(sent);
+        relayed.increment(sent.size());
+        return sent.size();
+    }
+
+    private void awaitSends(Collection<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.debug("Not every outbox send succeeded", e);
+        }
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), decode(event));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Object decode(OutboxEvent event) {
+        try {
+            return codec.decode(event.getPayload(), ClassUtils.forName(event.getPayloadType(), getClass().getClassLoader()));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown outbox payload type: " + event.getPayloadType(), e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.configurations.PayloadStoreConfig;
+import com.marcella.backend.utils.WorkflowCodec;
+import com.marcella.backend.workflow.LayeredContext;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayloadOffloadService {
+
+    public static final String REFERENCE_KEY = "$payloadRef";
+    private static final String SIZE_KEY = "sizeBytes";
+
+    private final PayloadStore payloadStore;
+    private final PayloadStoreConfig config;
+    private final WorkflowCodec codec;
+
+    public void offload(NodeCompletionMessage completion) {
+        if (!config.isEnabled() || completion == null) {
+            return;
+        }
+
+        completion.setOutput(offload(completion.getExecutionId(), completion.getOutput()));
+        if (completion.getChainCompletions() != null) {
+            completion.getChainCompletions().forEach(this::offload);
+        }
+    }
+
+    public Map<String, Object> offload(UUID executionId, Map<String, Object> output) {
+        if (!config.isEnabled() || output == null || output.isEmpty()) {
+            return output;
+        }
+
+        Map<String, Object> offloaded = null;
+        for (Map.Entry<String, Object> entry : output.entrySet()) {
+            if (!mayExceedThreshold(entry.getValue())) {
+                continue;
+            }
+
+            byte[] data = codec.encode(entry.getValue());
+            if (data.length <= config.getThresholdBytes()) {
+                continue;
+            }
+
+            if (offloaded == null) {
+                offloaded = new HashMap<>(output);
+            }
+            String reference = payloadStore.put(executionId, data);
+            offloaded.put(entry.getKey(), Map.of(REFERENCE_KEY, reference, SIZE_KEY, data.length));
+            log.debug("Offloaded {} ({} bytes) for execution: {}", entry.getKey(), data.length, executionId);
+        }
+
+        return offloaded != null ? offloaded : output;
+    }
+
+    public Map<String, Object> resolving(Map<String, Object> context) {
+        if (context == null) {
+            return null;
+        }
+        return new LayeredContext(List.of(context), resolver());
+    }
+
+    public Map<String, Object> materialize(Map<String, Object> context) {
+        if (context == null) {
+            return null;
+        }
+
+        UnaryOperator<Object> resolver = resolver();
+        Map<String, Object> materialized = new HashMap<>();
+        context.forEach((key, value) -> {
+            Object resolved = resolver.apply(value);
+            materialized.put(key, resolved instanceof LayeredContext nested ? new HashMap<>(nested) : resolved);
+        });
+        return materialized;
+    }
+
+    public Object resolve(Object value) {
+        return resolver().apply(value);
+    }
+
+    public void release(UUID executionId) {
+        try {
+            payloadStore.release(executionId);
+        } catch (Exception e) {
+            log.warn("Failed to release offloaded payloads for execution: {}", executionId, e);
+        }
+    }
+
+    private UnaryOperator<Object> resolver() {
+        Map<String, Object> loaded = new HashMap<>();
+
+        return new UnaryOperator<>() {
+            @Override
+            public Object apply(Object value) {
+                if (isReference(value)) {
+                    String reference = String.valueOf(((Map<?, ?>) value).get(REFERENCE_KEY));
+                    return loaded.computeIfAbsent(reference, PayloadOffloadService.this::load);
+                }
+                if (value instanceof Map<?, ?> map && !(map instanceof LayeredContext)
+                        && map.values().stream().anyMatch(PayloadOffloadService::isReference)) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> nested = (Map<String, Object>) map;
+                    return new LayeredContext(List.of(nested), this);
+                }
+                return value;
+            }
+        };
+    }
+
+    private Object load(String reference) {
+        byte[] data = payloadStore.get(reference);
+        if (data == null) {
+            log.warn("Offloaded payload not found: {}", reference);
+            return null;
+        }
+        return codec.decode(data, Object.class);
+    }
+
+    private boolean mayExceedThreshold(Object value) {
+        if (value instanceof String string) {
+            return string.length() * 3 > config.getThresholdBytes();
+        }
+        return value instanceof Map<?, ?> || value instanceof Collection<?>;
+    }
+
+    public static boolean isReference(Object value) {
+        return value instanceof Map<?, ?> map && map.size() == 2 && map.containsKey(REFERENCE_KEY);
+    }
+}
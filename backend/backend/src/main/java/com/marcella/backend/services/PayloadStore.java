@@ -0,0 +1,12 @@
+package com.marcella.backend.services;
+
+import java.util.UUID;
+
+public interface PayloadStore {
+
+    String put(UUID executionId, byte[] data);
+
+    byte[] get(String reference);
+
+    void release(UUID executionId);
+}
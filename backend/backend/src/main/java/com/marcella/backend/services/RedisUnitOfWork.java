@@ -0,0 +1,69 @@
+package com.marcella.backend.services;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class RedisUnitOfWork {
+
+    private final RedisTemplate<String, byte[]> template;
+    private final List<Consumer<RedisConnection>> pendingWrites = new ArrayList<>();
+    private int roundTrips;
+
+    RedisUnitOfWork(RedisTemplate<String, byte[]> template) {
+        this.template = template;
+    }
+
+    public void write(Consumer<RedisConnection> operation) {
+        pendingWrites.add(operation);
+    }
+
+    public List<Object> read(List<Consumer<RedisConnection>> commands) {
+        if (commands.isEmpty()) {
+            flush();
+            return List.of();
+        }
+
+        List<Consumer<RedisConnection>> writes = drainWrites();
+
+        List<Object> results = template.executePipelined((RedisCallback<Object>) connection -> {
+            writes.forEach(write -> write.accept(connection));
+            commands.forEach(command -> command.accept(connection));
+            return null;
+        });
+        roundTrips++;
+
+        return results.subList(results.size() - commands.size(), results.size());
+    }
+
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        List<Consumer<RedisConnection>> writes = drainWrites();
+        template.executePipelined((RedisCallback<Object>) connection -> {
+            writes.forEach(write -> write.accept(connection));
+            return null;
+        });
+        roundTrips++;
+    }
+
+    public void countRoundTrips(int count) {
+        roundTrips += count;
+    }
+
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+
+    private List<Consumer<RedisConnection>> drainWrites() {
+        List<Consumer<RedisConnection>> writes = new ArrayList<>(pendingWrites);
+        pendingWrites.clear();
+        return writes;
+    }
+}
@@ -0,0 +1,30 @@
+package com.marcella.backend.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+public class RedisUnitOfWorkFactory {
+
+    private final RedisTemplate<String, byte[]> contextRedisTemplate;
+    private final DistributionSummary roundTrips;
+
+    public RedisUnitOfWorkFactory(@Qualifier("contextRedisTemplate") RedisTemplate<String, byte[]> contextRedisTemplate,
+                                  MeterRegistry meterRegistry) {
+        this.contextRedisTemplate = contextRedisTemplate;
+        this.roundTrips = DistributionSummary.builder("workflow.coordinator.redis.round.trips")
+                .description("Redis round trips issued while applying one node completion")
+                .register(meterRegistry);
+    }
+
+    public RedisUnitOfWork begin() {
+        return new RedisUnitOfWork(contextRedisTemplate);
+    }
+
+    public void record(RedisUnitOfWork unitOfWork) {
+        roundTrips.record(unitOfWork.getRoundTrips());
+    }
+}
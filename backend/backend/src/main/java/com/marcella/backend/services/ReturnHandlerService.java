@@ -1,11 +1,16 @@
 package com.marcella.backend.services;
 
-import com.marcella.backend.workflow.ExecutionContext;
+import com.marcella.backend.utils.WorkflowCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
@@ -15,10 +20,16 @@ import java.util.*;
 @Slf4j
 public class ReturnHandlerService {
 
+    @Qualifier("contextRedisTemplate")
+    @Autowired
+    private RedisTemplate<String, byte[]> contextRedisTemplate;
+
     private final RedisTemplate<String, Object> redisTemplate;
-    private final ExecutionContextService contextService;
+    private final PayloadOffloadService payloadService;
+    private final WorkflowCodec codec;
 
     private static final String RETURN_VARIABLES_KEY = "execution:return_vars:";
+    private static final String RETURN_VALUES_KEY = "execution:return_values:";
     private static final Duration DEFAULT_EXPIRATION = Duration.ofHours(24);
 
     public void storeReturnVariables(UUID executionId, List<String> returnVariables) {
@@ -50,52 +61,91 @@ public class ReturnHandlerService {
         return returnVariables;
     }
 
-    public Map<String, Object> extractReturnVariables(UUID executionId) {
-        List<String> requestedVariables = getReturnVariables(executionId);
+    public void captureReturnValues(UUID executionId, List<String> requestedVariables, Map<String, Object> values) {
+        Map<String, Object> captured = selectReturnValues(requestedVariables, values);
+        if (captured.isEmpty()) {
+            return;
+        }
 
-        log.info("🔍 Extracting return variables for execution: {}", executionId);
-        log.info("🎯 Requested variables: {}", requestedVariables);
+        String key = RETURN_VALUES_KEY + executionId;
+        Map<String, byte[]> fields = new HashMap<>();
+        captured.forEach((name, value) -> fields.put(name, codec.encode(value)));
+        contextRedisTemplate.opsForHash().putAll(key, fields);
+        contextRedisTemplate.expire(key, DEFAULT_EXPIRATION);
+        log.debug("🎯 Captured return variables {} for execution: {}", captured.keySet(), executionId);
+    }
 
-        if (requestedVariables.isEmpty()) {
-            log.warn("⚠️ No return variables requested for execution: {}", executionId);
-            return new HashMap<>();
+    public void writeReturnValues(RedisConnection connection, UUID executionId, List<String> requestedVariables,
+                                  Map<String, Object> values) {
+        Map<String, Object> captured = selectReturnValues(requestedVariables, values);
+        if (captured.isEmpty()) {
+            return;
         }
 
-        ExecutionContext context = contextService.getContext(executionId);
-        if (context == null) {
-            log.error("❌ No execution context found for: {}", executionId);
-            return new HashMap<>();
-        }
+        byte[] key = (RETURN_VALUES_KEY + executionId).getBytes(StandardCharsets.UTF_8);
+        Map<byte[], byte[]> fields = new HashMap<>();
+        captured.forEach((name, value) -> fields.put(name.getBytes(StandardCharsets.UTF_8), codec.encode(value)));
 
-        Map<String, Object> allVariables = new HashMap<>();
+        connection.hashCommands().hMSet(key, fields);
+        connection.keyCommands().expire(key, DEFAULT_EXPIRATION.toSeconds());
+    }
+
+    public void captureMissingReturnValues(UUID executionId, List<String> requestedVariables,
+                                           Map<String, Object> values) {
+        String key = RETURN_VALUES_KEY + executionId;
+        selectReturnValues(requestedVariables, values)
+                .forEach((name, value) -> contextRedisTemplate.opsForHash().putIfAbsent(key, name, codec.encode(value)));
+        contextRedisTemplate.expire(key, DEFAULT_EXPIRATION);
+    }
 
-        if (context.getGlobalVariables() != null) {
-            allVariables.putAll(context.getGlobalVariables());
-            log.debug("📦 Added {} global variables", context.getGlobalVariables().size());
+    private Map<String, Object> selectReturnValues(List<String> requestedVariables, Map<String, Object> values) {
+        Map<String, Object> selected = new HashMap<>();
+        if (requestedVariables == null || values == null || values.isEmpty()) {
+            return selected;
         }
 
-        if (context.getNodeOutputs() != null) {
-            int nodeOutputCount = 0;
-            for (Map.Entry<String, Map<String, Object>> nodeEntry : context.getNodeOutputs().entrySet()) {
-                if (nodeEntry.getValue() != null) {
-                    allVariables.putAll(nodeEntry.getValue());
-                    nodeOutputCount += nodeEntry.getValue().size();
-                    log.debug("📦 Added {} variables from node: {}", nodeEntry.getValue().size(), nodeEntry.getKey());
-                }
+        for (String varName : requestedVariables) {
+            Object value = values.get(varName);
+            if (value != null) {
+                selected.put(varName, value);
             }
-            log.debug("📦 Total variables from {} nodes: {}", context.getNodeOutputs().size(), nodeOutputCount);
+        }
+        return selected;
+    }
+
+    public boolean hasAllReturnValues(UUID executionId) {
+        List<String> requestedVariables = getReturnVariables(executionId);
+        if (requestedVariables.isEmpty()) {
+            return false;
+        }
+        return redisTemplate.opsForHash().size(RETURN_VALUES_KEY + executionId) >= new HashSet<>(requestedVariables).size();
+    }
+
+    public Map<String, Object> extractReturnVariables(UUID executionId) {
+        return extractReturnVariables(executionId, getReturnVariables(executionId));
+    }
+
+    private Map<String, Object> extractReturnVariables(UUID executionId, List<String> requestedVariables) {
+        log.info("🔍 Extracting return variables for execution: {}", executionId);
+        log.info("🎯 Requested variables: {}", requestedVariables);
+
+        if (requestedVariables.isEmpty()) {
+            log.warn("⚠️ No return variables requested for execution: {}", executionId);
+            return new HashMap<>();
         }
 
-        log.info("📊 Total available variables: {}", allVariables.size());
-        log.debug("🔑 Available variable keys: {}", allVariables.keySet());
+        List<Object> values = contextRedisTemplate.opsForHash()
+                .multiGet(RETURN_VALUES_KEY + executionId, new ArrayList<>(requestedVariables));
 
         Map<String, Object> returnVariables = new HashMap<>();
         List<String> foundVariables = new ArrayList<>();
         List<String> missingVariables = new ArrayList<>();
 
-        for (String varName : requestedVariables) {
-            if (allVariables.containsKey(varName)) {
-                Object value = allVariables.get(varName);
+        for (int i = 0; i < requestedVariables.size(); i++) {
+            String varName = requestedVariables.get(i);
+            Object value = decode(values.get(i));
+            if (value != null) {
+                value = payloadService.resolve(value);
                 returnVariables.put(varName, value);
                 foundVariables.add(varName);
                 log.debug("✅ Found return variable: {} = {}", varName, value);
@@ -115,15 +165,34 @@ public class ReturnHandlerService {
         return returnVariables;
     }
 
+    private Object decode(Object value) {
+        if (!(value instanceof byte[] bytes) || bytes.length == 0) {
+            return null;
+        }
+
+        if (WorkflowCodec.isLegacyTypedJson(bytes)) {
+            try {
+                return redisTemplate.getHashValueSerializer().deserialize(bytes);
+            } catch (SerializationException e) {
+                log.debug("Return value is not in the legacy typed format, decoding with the codec");
+            }
+        }
+        return codec.decode(bytes, Object.class);
+    }
+
+    public List<String> returnKeys(UUID executionId) {
+        return List.of(RETURN_VARIABLES_KEY + executionId, RETURN_VALUES_KEY + executionId);
+    }
+
     public void clearReturnVariables(UUID executionId) {
         String key = RETURN_VARIABLES_KEY + executionId;
-        redisTemplate.delete(key);
+        redisTemplate.delete(List.of(key, RETURN_VALUES_KEY + executionId));
         log.debug("Cleared return variables for execution: {}", executionId);
     }
 
     public Map<String, Object> createReturnPayload(UUID executionId, String status) {
-        Map<String, Object> returnVariables = extractReturnVariables(executionId);
         List<String> requestedVariables = getReturnVariables(executionId);
+        Map<String, Object> returnVariables = extractReturnVariables(executionId, requestedVariables);
 
         Map<String, Object> payload = new HashMap<>();
         payload.put("executionId", executionId);
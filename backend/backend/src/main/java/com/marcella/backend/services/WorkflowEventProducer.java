@@ -4,10 +4,14 @@ import com.marcella.backend.workflow.NodeCompletionMessage;
 import com.marcella.backend.workflow.NodeExecutionMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -15,6 +19,14 @@ import java.util.Set;
 public class WorkflowEventProducer {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxService outboxService;
+
+    public static final String SPRING_NODES_TOPIC = "spring-nodes";
+    public static final String SPRING_IO_NODES_TOPIC = "spring-nodes-io";
+    public static final String SPRING_WAIT_NODES_TOPIC = "spring-nodes-wait";
+
+    @Value("${workflow.lanes.enabled:true}")
+    private boolean lanesEnabled;
 
     private static final Set<String> FASTAPI_NODE_TYPES = Set.of(
             "text-generation",
@@ -51,11 +63,47 @@ public class WorkflowEventProducer {
             "gmailReply"
     );
 
+    private static final Set<String> EXTERNAL_IO_NODE_TYPES = Set.of(
+            "action",
+            "googlecalendar",
+            "httpget",
+            "httppost",
+            "httpput",
+            "httpdelete",
+            "gmailsend",
+            "gmailsearch",
+            "gmailmarkread",
+            "gmailaddlabel",
+            "gmailcreatedraft",
+            "gmailreply"
+    );
+
+    private static final Set<String> LONG_WAIT_NODE_TYPES = Set.of(
+            "delay",
+            "trigger",
+            "webhook"
+    );
+
+    public static boolean isSpringTopic(String topic) {
+        return SPRING_NODES_TOPIC.equals(topic) || SPRING_IO_NODES_TOPIC.equals(topic)
+                || SPRING_WAIT_NODES_TOPIC.equals(topic);
+    }
+
     public void publishNodeExecution(NodeExecutionMessage message) {
-        String topic = determineTopicByNodeType(message.getNodeType());
+        publishNodeExecution(determineTopicByNodeType(message.getNodeType()), message);
+    }
 
-        kafkaTemplate.send(topic, message.getNodeId(), message)
-                .thenAccept(result -> {
+    public CompletableFuture<?> publishNodeExecution(String topic, NodeExecutionMessage message) {
+        if (outboxService.isActive()) {
+            outboxService.enqueue(topic, message.getExecutionId(), message);
+            log.info("Node execution message queued in outbox for topic '{}': nodeId={}, nodeType={}",
+                    topic, message.getNodeId(), message.getNodeType());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<SendResult<String, Object>> future =
+                kafkaTemplate.send(topic, partitionKey(message.getExecutionId()), message);
+        future.thenAccept(result -> {
                     log.info("Node execution message sent to topic '{}': nodeId={}, nodeType={}",
                             topic, message.getNodeId(), message.getNodeType());
                 })
@@ -64,11 +112,27 @@ public class WorkflowEventProducer {
                             message.getNodeId(), message.getNodeType(), ex);
                     return null;
                 });
+        return future;
     }
 
-    public void publishNodeCompletion(NodeCompletionMessage message) {
-        kafkaTemplate.send("node-completion", message.getNodeId(), message);
+    public CompletableFuture<?> publishNodeCompletion(NodeCompletionMessage message) {
+        if (outboxService.isActive()) {
+            outboxService.enqueue("node-completion", message.getExecutionId(), message);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<SendResult<String, Object>> future =
+                kafkaTemplate.send("node-completion", partitionKey(message.getExecutionId()), message);
         log.info("Node completion message sent: {} with status: {}", message.getNodeId(), message.getStatus());
+        return future;
+    }
+
+    private String partitionKey(UUID executionId) {
+        return executionId != null ? executionId.toString() : null;
+    }
+
+    public String resolveTopic(String nodeType) {
+        return determineTopicByNodeType(nodeType);
     }
 
     private String determineTopicByNodeType(String nodeType) {
@@ -79,12 +143,26 @@ public class WorkflowEventProducer {
             return "fastapi-nodes";
         }
 
-        if (SPRING_NODE_TYPES.contains(normalizedType)) {
-            log.debug("Routing node type '{}' to spring-nodes topic", nodeType);
-            return "spring-nodes";
+        if (SPRING_NODE_TYPES.stream().anyMatch(type -> type.equalsIgnoreCase(normalizedType))) {
+            String topic = springLane(normalizedType);
+            log.debug("Routing node type '{}' to {} topic", nodeType, topic);
+            return topic;
         }
 
-        log.warn("Unknown node type '{}', defaulting to spring-nodes topic", nodeType);
-        return "spring-nodes";
+        log.warn("Unknown node type '{}', defaulting to a spring-nodes lane", nodeType);
+        return springLane(normalizedType);
+    }
+
+    private String springLane(String normalizedType) {
+        if (!lanesEnabled) {
+            return SPRING_NODES_TOPIC;
+        }
+        if (EXTERNAL_IO_NODE_TYPES.contains(normalizedType)) {
+            return SPRING_IO_NODES_TOPIC;
+        }
+        if (LONG_WAIT_NODE_TYPES.contains(normalizedType)) {
+            return SPRING_WAIT_NODES_TOPIC;
+        }
+        return SPRING_NODES_TOPIC;
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.entities.Workflows;
+import com.marcella.backend.nodeHandlers.NodeHandler;
+import com.marcella.backend.repositories.WorkflowRepository;
+import com.marcella.backend.workflow.ExecutionPlan;
+import com.marcella.backend.workflow.WorkflowDefinition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class WorkflowPlanCache {
+
+    private final WorkflowRepository workflowRepository;
+    private final WorkflowDefinitionParser workflowDefinitionParser;
+    private final KahnAlgoService kahnService;
+    private final WorkflowEventProducer eventProducer;
+    private final List<NodeHandler> nodeHandlers;
+
+    private final Set<String> inlineNodeTypes;
+    private final Set<String> contextAllowList;
+
+    private final Map<PlanKey, ExecutionPlan> plans;
+    private final Counter hits;
+    private final Counter misses;
+
+    public WorkflowPlanCache(WorkflowRepository workflowRepository,
+                             WorkflowDefinitionParser workflowDefinitionParser,
+                             KahnAlgoService kahnService,
+                             WorkflowEventProducer eventProducer,
+                             List<NodeHandler> nodeHandlers,
+                             MeterRegistry meterRegistry,
+                             @Value("${workflow.plan-cache.max-size:500}") int maxSize,
+                             @Value("${workflow.inline.enabled:true}") boolean inlineEnabled,
+                             @Value("${workflow.inline.node-types:start,calculator,transform,condition,currentTime}")
+                             List<String> inlineNodeTypes,
+                             @Value("${workflow.context.projection-enabled:true}") boolean projectionEnabled,
+                             @Value("${workflow.context.allow-list:googleAccessToken,gmail_messages,openai,dataset}")
+                             List<String> contextAllowList) {
+        this.workflowRepository = workflowRepository;
+        this.workflowDefinitionParser = workflowDefinitionParser;
+        this.kahnService = kahnService;
+        this.eventProducer = eventProducer;
+        this.nodeHandlers = nodeHandlers;
+        this.inlineNodeTypes = inlineEnabled
+                ? inlineNodeTypes.stream().map(String::toLowerCase).collect(Collectors.toUnmodifiableSet())
+                : Set.of();
+        this.contextAllowList = projectionEnabled ? Set.copyOf(contextAllowList) : null;
+
+        this.plans = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PlanKey, ExecutionPlan> eldest) {
+                return size() > maxSize;
+            }
+        });
+
+        this.hits = Counter.builder("workflow.plan.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("workflow.plan.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("workflow.plan.cache.size", plans, Map::size)
+                .register(meterRegistry);
+    }
+
+    public ExecutionPlan getPlan(UUID workflowId, Long version) {
+        if (version != null) {
+            ExecutionPlan cached = plans.get(new PlanKey(workflowId, version));
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+
+        Workflows workflow = workflowRepository.findById(workflowId)
+                .orElseThrow(() -> new RuntimeException("Workflow not found: " + workflowId));
+
+        if (version != null && !Objects.equals(version, workflow.getVersion())) {
+            log.warn("Workflow {} moved from version {} to {} during execution, using latest definition",
+                    workflowId, version, workflow.getVersion());
+        }
+
+        return compileAndCache(workflow);
+    }
+
+    public ExecutionPlan getPlan(Workflows workflow) {
+        ExecutionPlan cached = plans.get(new PlanKey(workflow.getId(), workflow.getVersion()));
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        return compileAndCache(workflow);
+    }
+
+    public void invalidate(UUID workflowId) {
+        synchronized (plans) {
+            plans.keySet().removeIf(key -> key.workflowId().equals(workflowId));
+        }
+        log.info("Invalidated cached execution plans for workflow: {}", workflowId);
+    }
+
+    private ExecutionPlan compileAndCache(Workflows workflow) {
+        WorkflowDefinition definition = workflowDefinitionParser.parseWorkflowDefinition(workflow);
+        ExecutionPlan plan = kahnService.buildExecutionPlan(definition, workflow.getVersion(),
+                eventProducer::resolveTopic, inlineNodeTypes, contextAllowList != null ? this::contextKeys : null);
+
+        plans.put(new PlanKey(workflow.getId(), workflow.getVersion()), plan);
+
+        log.info("Compiled execution plan for workflow: {} version: {} with {} nodes ({} inline)",
+                workflow.getId(), workflow.getVersion(), plan.getNodes().size(), plan.getInlineNodes().size());
+        return plan;
+    }
+
+    private Set<String> contextKeys(String nodeType) {
+        Set<String> keys = new HashSet<>(contextAllowList);
+        nodeHandlers.stream()
+                .filter(handler -> handler.canHandle(nodeType))
+                .forEach(handler -> keys.addAll(handler.contextKeys()));
+        return keys;
+    }
+
+    private record PlanKey(UUID workflowId, Long version) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.marcella.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import com.marcella.backend.workflow.NodeExecutionMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkflowTimerService {
+
+    private static final String TIMERS_KEY = "workflow:timers";
+    private static final String TIMER_PAYLOADS_KEY = "workflow:timer:payloads";
+    private static final String TIMER_LEASES_KEY = "workflow:timer:leases";
+    private static final List<String> TIMER_KEYS = List.of(TIMERS_KEY, TIMER_PAYLOADS_KEY, TIMER_LEASES_KEY);
+    private static final String RETRY_PREFIX = "retry:";
+    private static final long RETRY_BACKOFF_MS = 1000;
+
+    @Qualifier("customStringRedisTemplate")
+    @Autowired
+    private RedisTemplate<String, String> customStringRedisTemplate;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<String>> CLAIM_DUE_TIMERS_SCRIPT =
+            (RedisScript) RedisScript.of(new ClassPathResource("redis/claim_due_timers.lua"), List.class);
+
+    private static final RedisScript<Long> RELEASE_TIMER_LEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/release_timer_lease.lua"), Long.class);
+
+    private final WorkflowEventProducer eventProducer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${workflow.timers.batch-size:100}")
+    private int batchSize;
+
+    @Value("${workflow.timers.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${workflow.timers.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    public void schedule(NodeCompletionMessage completion, Instant dueAt) {
+        store(completion.getExecutionId() + ":" + completion.getNodeId(), completion, dueAt);
+    }
+
+    public void scheduleRetry(String topic, NodeExecutionMessage message, Instant dueAt) {
+        store(RETRY_PREFIX + topic + ":" + message.getExecutionId() + ":" + message.getNodeId()
+                + ":" + message.getAttempt(), message, dueAt);
+    }
+
+    private void store(String timerId, Object payload, Instant dueAt) {
+        try {
+            customStringRedisTemplate.opsForHash().put(TIMER_PAYLOADS_KEY, timerId,
+                    objectMapper.writeValueAsString(payload));
+            customStringRedisTemplate.opsForZSet().add(TIMERS_KEY, timerId, dueAt.toEpochMilli());
+
+            log.info("Scheduled timer {} due at {}", timerId, dueAt);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize timer payload: " + timerId, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.timers.poll-interval-ms:500}")
+    public void fireDueTimers() {
+        List<String> claimed;
+        do {
+            long now = System.currentTimeMillis();
+            claimed = customStringRedisTemplate.execute(CLAIM_DUE_TIMERS_SCRIPT, TIMER_KEYS,
+                    String.valueOf(now), String.valueOf(batchSize), String.valueOf(now + leaseMs));
+
+            if (claimed == null) {
+                return;
+            }
+
+            Map<String, CompletableFuture<?>> fires = new LinkedHashMap<>();
+            for (int i = 0; i + 1 < claimed.size(); i += 2) {
+                String timerId = claimed.get(i);
+                CompletableFuture<?> fire = timerId.startsWith(RETRY_PREFIX)
+                        ? fireRetry(timerId, claimed.get(i + 1))
+                        : fireCompletion(timerId, claimed.get(i + 1));
+                if (fire != null) {
+                    fires.put(timerId, fire);
+                }
+            }
+            awaitFires(fires);
+        } while (claimed.size() / 2 >= batchSize);
+    }
+
+    private CompletableFuture<?> fireRetry(String timerId, String payload) {
+        String topic = timerId.split(":", 3)[1];
+        NodeExecutionMessage message;
+        try {
+            message = objectMapper.readValue(payload, NodeExecutionMessage.class);
+        } catch (JsonProcessingException e) {
+            log.error("Dropping unreadable retry payload: {}", payload, e);
+            release(timerId, null);
+            return null;
+        }
+
+        message.setTimestamp(Instant.now());
+        return send(() -> eventProducer.publishNodeExecution(topic, message));
+    }
+
+    private CompletableFuture<?> fireCompletion(String timerId, String payload) {
+        NodeCompletionMessage completion;
+        try {
+            completion = objectMapper.readValue(payload, NodeCompletionMessage.class);
+        } catch (JsonProcessingException e) {
+            log.error("Dropping unreadable timer payload: {}", payload, e);
+            release(timerId, null);
+            return null;
+        }
+
+        completion.setTimestamp(Instant.now());
+        return send(() -> eventProducer.publishNodeCompletion(completion));
+    }
+
+    private CompletableFuture<?> send(Supplier<CompletableFuture<?>> publish) {
+        try {
+            return publish.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void awaitFires(Map<String, CompletableFuture<?>> fires) {
+        try {
+            CompletableFuture.allOf(fires.values().toArray(CompletableFuture[]::new))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.debug("Not every timer publish succeeded, rescheduling the failed ones", e);
+        }
+
+        fires.forEach((timerId, fire) -> {
+            if (fire.isDone() && !fire.isCompletedExceptionally()) {
+                release(timerId, null);
+                log.info("Timer {} fired", timerId);
+            } else {
+                log.error("Failed to publish timer {}, rescheduling", timerId,
+                        fire.handle((result, failure) -> failure).getNow(null));
+                release(timerId, Instant.now().plusMillis(RETRY_BACKOFF_MS));
+            }
+        });
+    }
+
+    private void release(String timerId, Instant retryAt) {
+        Long released = customStringRedisTemplate.execute(RELEASE_TIMER_LEASE_SCRIPT, TIMER_KEYS,
+                timerId, retryAt != null ? String.valueOf(retryAt.toEpochMilli()) : "");
+        if (released == null || released == 0) {
+            log.warn("Lease for timer {} expired before it was released, it will fire again", timerId);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.marcella.backend.utils;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,4 +37,22 @@ public class TemplateUtils {
 
         return result;
     }
+
+    public static Set<String> extractVariables(String template) {
+        Set<String> variables = new HashSet<>();
+        if (template == null) {
+            return variables;
+        }
+
+        Matcher matcher = pattern.matcher(template);
+        while (matcher.find()) {
+            variables.add(matcher.group(1));
+            variables.add(matcher.group(1).trim());
+        }
+        return variables;
+    }
+
+    public static boolean hasVariables(String template) {
+        return template != null && pattern.matcher(template).find();
+    }
 }
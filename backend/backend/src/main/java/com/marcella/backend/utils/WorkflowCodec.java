@@ -0,0 +1,102 @@
+package com.marcella.backend.utils;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+public class WorkflowCodec {
+
+    public enum Format {
+        JSON, SMILE;
+
+        public static Format from(Object value) {
+            if (value == null) {
+                return JSON;
+            }
+
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(String.valueOf(value).trim())) {
+                    return format;
+                }
+            }
+            return JSON;
+        }
+    }
+
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+    private static final String LEGACY_TYPED_MAP_PREFIX = "{\"@class\"";
+
+    private final Format format;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+
+    public WorkflowCodec(Format format) {
+        this.format = format;
+        this.jsonMapper = JacksonUtils.enhancedObjectMapper();
+
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        this.smileMapper = new ObjectMapper(smileFactory)
+                .registerModule(new Jdk8Module())
+                .registerModule(new JavaTimeModule())
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public byte[] encode(Object value) {
+        return encode(value, format);
+    }
+
+    public byte[] encode(Object value, Format format) {
+        try {
+            return format == Format.SMILE
+                    ? smileMapper.writeValueAsBytes(value)
+                    : jsonMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        try {
+            return isSmile(bytes)
+                    ? smileMapper.readValue(bytes, type)
+                    : jsonMapper.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode " + type.getSimpleName(), e);
+        }
+    }
+
+    public static boolean isSmile(byte[] bytes) {
+        if (bytes == null || bytes.length < SMILE_HEADER.length) {
+            return false;
+        }
+
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (bytes[i] != SMILE_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isLegacyTypedJson(byte[] bytes) {
+        String prefix = new String(bytes, 0, Math.min(bytes.length, LEGACY_TYPED_MAP_PREFIX.length()),
+                StandardCharsets.UTF_8);
+        return prefix.startsWith("[\"") || prefix.equals(LEGACY_TYPED_MAP_PREFIX);
+    }
+}
@@ -0,0 +1,36 @@
+package com.marcella.backend.utils;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+
+public class WorkflowKafkaDeserializer implements Deserializer<Object> {
+
+    private final WorkflowCodec codec = new WorkflowCodec(WorkflowCodec.Format.JSON);
+    private Class<?> valueType = Map.class;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object type = configs.get(JsonDeserializer.VALUE_DEFAULT_TYPE);
+        if (type instanceof Class<?> clazz) {
+            valueType = clazz;
+        } else if (type instanceof String className) {
+            try {
+                valueType = ClassUtils.forName(className, getClass().getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new SerializationException("Unknown value type: " + className, e);
+            }
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return codec.decode(data, valueType);
+    }
+}
@@ -0,0 +1,44 @@
+package com.marcella.backend.utils;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class WorkflowKafkaSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "workflow.serde.format";
+    public static final String BINARY_TOPICS_CONFIG = "workflow.serde.binary-topics";
+
+    private WorkflowCodec codec = new WorkflowCodec(WorkflowCodec.Format.JSON);
+    private Set<String> binaryTopics = Set.of();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        codec = new WorkflowCodec(WorkflowCodec.Format.from(configs.get(FORMAT_CONFIG)));
+        binaryTopics = topics(configs.get(BINARY_TOPICS_CONFIG));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+
+        WorkflowCodec.Format format = binaryTopics.contains(topic) ? codec.getFormat() : WorkflowCodec.Format.JSON;
+        return codec.encode(data, format);
+    }
+
+    private Set<String> topics(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().map(String::valueOf).map(String::trim).collect(Collectors.toSet());
+        }
+        if (value instanceof String string && !string.isBlank()) {
+            return Arrays.stream(string.split(",")).map(String::trim).collect(Collectors.toSet());
+        }
+        return Set.of();
+    }
+}
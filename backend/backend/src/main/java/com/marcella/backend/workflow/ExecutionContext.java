@@ -15,6 +15,7 @@ import java.util.*;
 public class ExecutionContext {
     private UUID executionId;
     private UUID workflowId;
+    private Long workflowVersion;
     private UUID userId;
     private Map<String, Object> globalVariables;
     private Map<String, Map<String, Object>> nodeOutputs;
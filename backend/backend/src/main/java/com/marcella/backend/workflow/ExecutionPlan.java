@@ -0,0 +1,81 @@
+package com.marcella.backend.workflow;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Value
+@Builder
+public class ExecutionPlan {
+    UUID workflowId;
+    Long version;
+    String workflowName;
+    Map<String, WorkflowNode> nodes;
+    Map<String, List<String>> incomingEdges;
+    Map<String, List<String>> outgoingEdges;
+    Map<String, Integer> inDegree;
+    Map<String, String> topics;
+    List<String> initialReadyNodes;
+    Set<String> inlineNodes;
+    Map<String, List<String>> chains;
+    Map<String, Map<String, String>> branchHandles;
+    Map<String, NodeFailurePolicy> failurePolicies;
+    Map<String, List<String>> contextLayers;
+    Map<String, Set<String>> contextKeys;
+
+    public boolean containsNode(String nodeId) {
+        return nodes.containsKey(nodeId);
+    }
+
+    public WorkflowNode getNode(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    public List<String> getDependencies(String nodeId) {
+        return incomingEdges.getOrDefault(nodeId, List.of());
+    }
+
+    public List<String> getDependents(String nodeId) {
+        return outgoingEdges.getOrDefault(nodeId, List.of());
+    }
+
+    public String getTopic(String nodeId) {
+        return topics.get(nodeId);
+    }
+
+    public boolean isInline(String nodeId) {
+        return inlineNodes.contains(nodeId);
+    }
+
+    public NodeFailurePolicy getFailurePolicy(String nodeId) {
+        return failurePolicies.getOrDefault(nodeId, NodeFailurePolicy.FAIL);
+    }
+
+    public boolean hasBranches(String nodeId) {
+        return branchHandles.containsKey(nodeId);
+    }
+
+    public String getBranchHandle(String sourceNodeId, String targetNodeId) {
+        return branchHandles.getOrDefault(sourceNodeId, Map.of()).get(targetNodeId);
+    }
+
+    public boolean isChainHead(String nodeId) {
+        return chains.containsKey(nodeId);
+    }
+
+    public List<String> getChain(String nodeId) {
+        return chains.getOrDefault(nodeId, List.of(nodeId));
+    }
+
+    public List<String> getContextLayers(String nodeId) {
+        return contextLayers.getOrDefault(nodeId, List.of());
+    }
+
+    public Set<String> getContextKeys(String nodeId) {
+        return contextKeys.get(nodeId);
+    }
+}
@@ -0,0 +1,112 @@
+package com.marcella.backend.workflow;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+public class LayeredContext extends AbstractMap<String, Object> {
+
+    private final List<Map<String, Object>> layers;
+    private final Map<String, Object> overrides = new HashMap<>();
+    private final UnaryOperator<Object> resolver;
+    private Set<Entry<String, Object>> entries;
+
+    public LayeredContext(List<Map<String, Object>> layers) {
+        this(layers, UnaryOperator.identity());
+    }
+
+    public LayeredContext(List<Map<String, Object>> layers, UnaryOperator<Object> resolver) {
+        this.resolver = resolver;
+        this.layers = new ArrayList<>();
+        for (Map<String, Object> layer : layers) {
+            if (layer != null && !layer.isEmpty()) {
+                this.layers.add(layer);
+            }
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (overrides.containsKey(key)) {
+            return overrides.get(key);
+        }
+        for (Map<String, Object> layer : layers) {
+            if (layer.containsKey(key)) {
+                return resolver.apply(layer.get(key));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (overrides.containsKey(key)) {
+            return true;
+        }
+        for (Map<String, Object> layer : layers) {
+            if (layer.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object previous = get(key);
+        overrides.put(key, value);
+        entries = null;
+        return previous;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entries != null) {
+            return entries;
+        }
+
+        Map<String, Object> flattened = new LinkedHashMap<>();
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            flattened.putAll(layers.get(i));
+        }
+        overrides.keySet().forEach(flattened::remove);
+
+        Set<Entry<String, Object>> flattenedEntries = new LinkedHashSet<>();
+        flattened.forEach((key, value) -> flattenedEntries.add(new LazyEntry(key, value)));
+        overrides.forEach((key, value) -> flattenedEntries.add(new SimpleImmutableEntry<>(key, value)));
+        entries = Collections.unmodifiableSet(flattenedEntries);
+        return entries;
+    }
+
+    private class LazyEntry implements Entry<String, Object> {
+        private final String key;
+        private final Object raw;
+
+        private LazyEntry(String key, Object raw) {
+            this.key = key;
+            this.raw = raw;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return resolver.apply(raw);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
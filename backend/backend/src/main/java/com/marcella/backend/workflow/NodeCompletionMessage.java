@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -23,5 +24,8 @@ public class NodeCompletionMessage {
     private String error;
     private Instant timestamp;
     private long processingTime;
+    private int attempt;
+    private List<NodeCompletionMessage> chainCompletions;
+    private List<String> deferredNodes;
     private String service = "spring";
 }
@@ -0,0 +1,24 @@
+package com.marcella.backend.workflow;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeCompletionResult {
+    private List<String> readyNodes;
+    private List<String> skippedNodes;
+    private long remainingNodes;
+    private boolean duplicate;
+    private int transitions;
+
+    public boolean isWorkflowComplete() {
+        return !duplicate && remainingNodes == 0;
+    }
+}
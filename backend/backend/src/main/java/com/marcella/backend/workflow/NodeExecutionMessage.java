@@ -25,6 +25,9 @@ public class NodeExecutionMessage {
     private Instant timestamp;
     private Priority priority;
     private String googleAccessToken;
+    private int attempt;
+    private List<NodeExecutionMessage> chainedNodes;
+    private Map<String, Object> globalVariables;
 
     public enum Priority {
         HIGH, NORMAL, LOW
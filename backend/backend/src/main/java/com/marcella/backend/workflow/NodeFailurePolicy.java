@@ -0,0 +1,18 @@
+package com.marcella.backend.workflow;
+
+public enum NodeFailurePolicy {
+    FAIL, SKIP, CONTINUE;
+
+    public static NodeFailurePolicy from(Object value) {
+        if (value == null) {
+            return FAIL;
+        }
+
+        for (NodeFailurePolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(String.valueOf(value).trim())) {
+                return policy;
+            }
+        }
+        return FAIL;
+    }
+}
@@ -0,0 +1,57 @@
+package com.marcella.backend.workflow;
+
+import com.google.api.client.http.HttpResponseException;
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Value
+@Builder
+public class RetryPolicy {
+    int maxAttempts;
+    long initialBackoffMs;
+    double multiplier;
+    long maxBackoffMs;
+    double jitter;
+    Set<String> retryableExceptions;
+    Set<Integer> retryableStatusCodes;
+
+    public boolean shouldRetry(int attempt, Throwable error) {
+        return attempt < maxAttempts && isRetryable(error);
+    }
+
+    public long backoffMs(int attempt) {
+        double backoff = Math.min(maxBackoffMs, initialBackoffMs * Math.pow(multiplier, attempt - 1));
+        double spread = backoff * jitter;
+        return Math.max(0, Math.round(backoff - spread + ThreadLocalRandom.current().nextDouble() * 2 * spread));
+    }
+
+    private boolean isRetryable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            Integer statusCode = statusCode(cause);
+            if (statusCode != null && retryableStatusCodes.contains(statusCode)) {
+                return true;
+            }
+
+            for (Class<?> type = cause.getClass(); type != null; type = type.getSuperclass()) {
+                if (retryableExceptions.contains(type.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Integer statusCode(Throwable error) {
+        if (error instanceof RestClientResponseException responseException) {
+            return responseException.getStatusCode().value();
+        }
+        if (error instanceof HttpResponseException responseException) {
+            return responseException.getStatusCode();
+        }
+        return null;
+    }
+}
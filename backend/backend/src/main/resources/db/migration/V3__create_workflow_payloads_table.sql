@@ -0,0 +1,10 @@
+CREATE TABLE workflow_payloads (
+                                   id UUID PRIMARY KEY,
+                                   execution_id UUID NOT NULL,
+                                   data BYTEA NOT NULL,
+                                   size_bytes INTEGER NOT NULL,
+
+                                   created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_workflow_payloads_execution ON workflow_payloads (execution_id);
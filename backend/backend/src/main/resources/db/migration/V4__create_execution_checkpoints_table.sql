@@ -0,0 +1,8 @@
+CREATE TABLE execution_checkpoints (
+                                       execution_id UUID PRIMARY KEY,
+                                       snapshot BYTEA NOT NULL,
+                                       key_count INTEGER NOT NULL,
+                                       size_bytes INTEGER NOT NULL,
+
+                                       created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,10 @@
+CREATE TABLE outbox_events (
+                               id BIGSERIAL PRIMARY KEY,
+                               execution_id UUID,
+                               topic VARCHAR(255) NOT NULL,
+                               message_key VARCHAR(255),
+                               payload_type VARCHAR(255) NOT NULL,
+                               payload BYTEA NOT NULL,
+
+                               created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
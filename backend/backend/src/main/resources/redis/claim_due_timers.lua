@@ -0,0 +1,23 @@
+-- KEYS[1] due-time sorted set, KEYS[2] timer payload hash, KEYS[3] in-flight lease sorted set
+-- ARGV[1] current epoch millis, ARGV[2] maximum number of timers to claim, ARGV[3] lease deadline epoch millis
+-- Expired leases go back to the due set first, so a timer whose publisher died before acknowledging fires again.
+-- Returns {id, payload, ...} pairs for the claimed timers; each lease is handed to exactly one caller.
+local expired = redis.call('ZRANGEBYSCORE', KEYS[3], '-inf', ARGV[1])
+for _, id in ipairs(expired) do
+    redis.call('ZREM', KEYS[3], id)
+    redis.call('ZADD', KEYS[1], 'NX', ARGV[1], id)
+end
+
+local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+
+local payloads = {}
+for _, id in ipairs(ids) do
+    redis.call('ZREM', KEYS[1], id)
+    local payload = redis.call('HGET', KEYS[2], id)
+    if payload then
+        redis.call('ZADD', KEYS[3], ARGV[3], id)
+        table.insert(payloads, id)
+        table.insert(payloads, payload)
+    end
+end
+return payloads
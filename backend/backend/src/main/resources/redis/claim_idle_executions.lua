@@ -0,0 +1,10 @@
+-- KEYS[1] activity sorted set
+-- ARGV[1] idle cutoff (epoch millis), ARGV[2] batch size
+-- Marks idle executions as claimed by setting their score to 0, so concurrent sweeps skip them and any
+-- later touch makes the eviction back off. Returns {id, previous score, ...} so a failed checkpoint can
+-- give the claim back.
+local claimed = redis.call('ZRANGEBYSCORE', KEYS[1], '(0', ARGV[1], 'WITHSCORES', 'LIMIT', 0, tonumber(ARGV[2]))
+for i = 1, #claimed, 2 do
+    redis.call('ZADD', KEYS[1], 'XX', 0, claimed[i])
+end
+return claimed
@@ -0,0 +1,12 @@
+-- KEYS[1] activity sorted set, KEYS[2..n] keys holding the execution's state
+-- ARGV[1] execution id
+-- Deletes the state keys unless the execution was touched (or released) after it was claimed for checkpointing.
+if redis.call('ZSCORE', KEYS[1], ARGV[1]) ~= '0' then
+    return 0
+end
+
+redis.call('ZREM', KEYS[1], ARGV[1])
+for i = 2, #KEYS do
+    redis.call('DEL', KEYS[i])
+end
+return 1
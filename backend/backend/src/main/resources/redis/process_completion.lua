@@ -0,0 +1,69 @@
+-- KEYS[1] in-degree hash, KEYS[2] completed set, KEYS[3] failed set, KEYS[4] skipped set, KEYS[5] live-input hash,
+-- KEYS[6] seen-completion set
+-- ARGV[1] node id, ARGV[2] 'completed', 'failed' or 'skipped', ARGV[3] seen token ('' for none),
+-- ARGV[4..n] pairs of dependent id and '1'/'0' for a live edge
+-- Returns {remaining, readyCount, ready..., skipped...}; remaining is -1 when the node was already applied and
+-- -2 when the in-degree hash is gone (expired or released execution).
+local ttl = redis.call('PTTL', KEYS[1])
+if ttl == -2 then
+    return {'-2'}
+end
+
+if ARGV[3] ~= '' then
+    if redis.call('SADD', KEYS[6], ARGV[3]) == 0 then
+        return {'-1'}
+    end
+    if ttl > 0 then
+        redis.call('PEXPIRE', KEYS[6], ttl)
+    end
+end
+
+local target = KEYS[2]
+if ARGV[2] == 'failed' then
+    target = KEYS[3]
+elseif ARGV[2] == 'skipped' then
+    target = KEYS[4]
+end
+
+for i = 2, 4 do
+    if redis.call('SISMEMBER', KEYS[i], ARGV[1]) == 1 then
+        return {'-1'}
+    end
+end
+redis.call('SADD', target, ARGV[1])
+
+if ttl > 0 then
+    redis.call('PEXPIRE', target, ttl)
+end
+
+local ready = {}
+local skipped = {}
+for i = 4, #ARGV, 2 do
+    local dependent = ARGV[i]
+    if ARGV[i + 1] == '1' then
+        redis.call('HINCRBY', KEYS[5], dependent, 1)
+    end
+    if redis.call('HINCRBY', KEYS[1], dependent, -1) == 0 then
+        if tonumber(redis.call('HGET', KEYS[5], dependent) or '0') > 0 then
+            table.insert(ready, dependent)
+        else
+            table.insert(skipped, dependent)
+        end
+    end
+end
+
+if ttl > 0 then
+    redis.call('PEXPIRE', KEYS[5], ttl)
+end
+
+local remaining = redis.call('HLEN', KEYS[1]) - redis.call('SCARD', KEYS[2])
+        - redis.call('SCARD', KEYS[3]) - redis.call('SCARD', KEYS[4])
+
+local result = {tostring(remaining), tostring(#ready)}
+for _, nodeId in ipairs(ready) do
+    table.insert(result, nodeId)
+end
+for _, nodeId in ipairs(skipped) do
+    table.insert(result, nodeId)
+end
+return result
@@ -0,0 +1,9 @@
+-- KEYS[1] activity sorted set
+-- ARGV[1] execution id, ARGV[2] score it had before it was claimed
+-- Gives back a checkpoint claim that did not evict the execution, unless it was touched in the meantime.
+if redis.call('ZSCORE', KEYS[1], ARGV[1]) ~= '0' then
+    return 0
+end
+
+redis.call('ZADD', KEYS[1], 'XX', ARGV[2], ARGV[1])
+return 1
@@ -0,0 +1,13 @@
+-- KEYS[1] due-time sorted set, KEYS[2] timer payload hash, KEYS[3] in-flight lease sorted set
+-- ARGV[1] timer id, ARGV[2] epoch millis to fire again, or '' once the timer has been published
+-- Returns 0 when the lease had already expired and was handed back to the due set.
+if redis.call('ZREM', KEYS[3], ARGV[1]) == 0 then
+    return 0
+end
+
+if ARGV[2] == '' then
+    redis.call('HDEL', KEYS[2], ARGV[1])
+else
+    redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+end
+return 1
@@ -0,0 +1,16 @@
+-- KEYS[1] restore marker, KEYS[2..n] keys holding the execution's state
+-- ARGV[1] key ttl (millis), ARGV[2] marker ttl (millis), ARGV[3..n] DUMP payload for each state key
+-- Restores a checkpoint once: returns -1 when another restore holds the marker, otherwise the number of keys
+-- restored. Keys that already exist were written after the checkpoint and are left as they are.
+if not redis.call('SET', KEYS[1], '1', 'NX', 'PX', ARGV[2]) then
+    return -1
+end
+
+local restored = 0
+for i = 2, #KEYS do
+    if redis.call('EXISTS', KEYS[i]) == 0 then
+        redis.call('RESTORE', KEYS[i], ARGV[1], ARGV[i + 1])
+        restored = restored + 1
+    end
+end
+return restored
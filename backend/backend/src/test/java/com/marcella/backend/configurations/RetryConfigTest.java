@@ -0,0 +1,61 @@
+package com.marcella.backend.configurations;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.marcella.backend.workflow.RetryPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryConfigTest {
+
+    private RetryConfig retryConfig;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load("application", new ClassPathResource("application.yml"));
+        retryConfig = new Binder(ConfigurationPropertySources.from(sources))
+                .bind("workflow.retry", Bindable.of(RetryConfig.class))
+                .get();
+    }
+
+    @Test
+    void resolvesTheConfiguredLimitForEveryHttpNodeType() {
+        for (String nodeType : List.of("httpGet", "httpPost", "httpPut", "httpDelete")) {
+            assertThat(retryConfig.policyFor(nodeType, Map.of()).getMaxAttempts()).as(nodeType).isEqualTo(3);
+        }
+        assertThat(retryConfig.policyFor("transform", Map.of()).getMaxAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void nodeDataOverridesTheTypeLimit() {
+        RetryPolicy policy = retryConfig.policyFor("httpGet", Map.of("retry", Map.of("maxAttempts", 5)));
+
+        assertThat(policy.getMaxAttempts()).isEqualTo(5);
+    }
+
+    @Test
+    void retriesGmailRateLimitResponses() {
+        RetryPolicy policy = retryConfig.policyFor("gmailSend", Map.of());
+
+        assertThat(policy.shouldRetry(1, status(403))).isTrue();
+        assertThat(policy.shouldRetry(1, status(404))).isFalse();
+        assertThat(policy.shouldRetry(3, status(403))).isFalse();
+    }
+
+    private HttpResponseException status(int statusCode) {
+        return new HttpResponseException.Builder(statusCode, null, new HttpHeaders()).build();
+    }
+}
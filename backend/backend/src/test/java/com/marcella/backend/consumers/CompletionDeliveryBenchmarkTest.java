@@ -0,0 +1,167 @@
+package com.marcella.backend.consumers;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares committing a node-completion poll inside a Kafka transaction (dispatches and offsets together)
+ * against the at-least-once mode (flush dispatches, then commit offsets). Only the delivery path is measured,
+ * so the difference is the cost of the transaction itself.
+ * <p>
+ * Run with {@code mvn test -Dtest=CompletionDeliveryBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CompletionDeliveryBenchmarkTest {
+
+    private static final int RECORDS = Integer.getInteger("benchmark.records", 50_000);
+    private static final int POLLS = Integer.getInteger("benchmark.polls", 200);
+    private static final int PAYLOAD_BYTES = Integer.getInteger("benchmark.payload-bytes", 1_024);
+    private static final int PARTITIONS = 3;
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS).brokerProperties(Map.of(
+                "transaction.state.log.replication.factor", "1",
+                "transaction.state.log.min.isr", "1",
+                "offsets.topic.replication.factor", "1"));
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void comparesTransactionalAndAtLeastOnceCompletionPolls() {
+        System.out.printf("%-14s %6s %8s %12s %10s%n", "mode", "batch", "records", "records/s", "ms/poll");
+        for (int batch : List.of(1, 50, 500)) {
+            for (boolean transactional : List.of(false, true)) {
+                Result result = run(transactional, batch, Math.min(RECORDS, batch * POLLS));
+                System.out.printf("%-14s %6d %8d %12.0f %10.3f%n",
+                        transactional ? "transactional" : "at-least-once", batch, result.records(),
+                        result.records() * 1e9 / result.nanos(), result.nanos() / 1e6 / result.polls());
+            }
+        }
+    }
+
+    private Result run(boolean transactional, int batch, int records) {
+        String input = "node-completion-" + UUID.randomUUID();
+        String output = "node-dispatch-" + UUID.randomUUID();
+        broker.addTopics(new NewTopic(input, PARTITIONS, (short) 1), new NewTopic(output, PARTITIONS, (short) 1));
+        preload(input, records);
+
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProps(batch));
+             KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerProps(transactional))) {
+            consumer.subscribe(List.of(input));
+            if (transactional) {
+                producer.initTransactions();
+            }
+
+            int processed = 0;
+            int polls = 0;
+            long deadline = System.nanoTime() + Duration.ofMinutes(10).toNanos();
+            long start = System.nanoTime();
+            while (processed < records && System.nanoTime() < deadline) {
+                ConsumerRecords<String, byte[]> polled = consumer.poll(Duration.ofMillis(200));
+                if (polled.isEmpty()) {
+                    continue;
+                }
+
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                if (transactional) {
+                    producer.beginTransaction();
+                }
+                for (ConsumerRecord<String, byte[]> record : polled) {
+                    producer.send(new ProducerRecord<>(output, record.key(), record.value()));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                }
+                if (transactional) {
+                    producer.sendOffsetsToTransaction(offsets, consumer.groupMetadata());
+                    producer.commitTransaction();
+                } else {
+                    producer.flush();
+                    consumer.commitSync(offsets);
+                }
+
+                processed += polled.count();
+                polls++;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            assertThat(processed).isEqualTo(records);
+            return new Result(processed, polls, elapsed);
+        }
+    }
+
+    private void preload(String topic, int records) {
+        byte[] payload = new byte[PAYLOAD_BYTES];
+        Map<String, Object> props = producerProps(false);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+        try (KafkaProducer<String, byte[]> producer = new KafkaProducer<>(props)) {
+            producer.partitionsFor(topic);
+            for (int i = 0; i < records; i++) {
+                producer.send(new ProducerRecord<>(topic, "execution-" + (i % 64), payload));
+            }
+            producer.flush();
+        }
+    }
+
+    private Map<String, Object> producerProps(boolean transactional) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        if (transactional) {
+            props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "benchmark-" + UUID.randomUUID());
+        }
+        return props;
+    }
+
+    private Map<String, Object> consumerProps(int batch) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "benchmark-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batch);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return props;
+    }
+
+    private record Result(int records, int polls, long nanos) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.marcella.backend.consumers;
+
+import com.marcella.backend.services.DistributedWorkflowCoordinator;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class NodeCompletionConsumerTest {
+
+    private final DistributedWorkflowCoordinator workflowCoordinator = mock(DistributedWorkflowCoordinator.class);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+    private final UUID executionId = UUID.randomUUID();
+
+    private final NodeCompletionMessage first = completion("first");
+    private final NodeCompletionMessage failing = completion("failing");
+    private final NodeCompletionMessage last = completion("last");
+
+    @Test
+    void acknowledgesABatchThatApplies() {
+        consumer(false).handleNodeCompletions(List.of(first, last), acknowledgment);
+
+        verify(workflowCoordinator).handleNodeCompletions(List.of(first, last));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void reportsTheFailingRecordOfABatchWithoutAcknowledgingIt() {
+        doThrow(new IllegalStateException("batch")).when(workflowCoordinator).handleNodeCompletions(any());
+        doThrow(new IllegalStateException("record")).when(workflowCoordinator).handleNodeCompletion(failing);
+
+        List<NodeCompletionMessage> messages = Arrays.asList(first, null, failing, last);
+
+        assertThatThrownBy(() -> consumer(false).handleNodeCompletions(messages, acknowledgment))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(2));
+
+        verify(workflowCoordinator).handleNodeCompletion(first);
+        verify(workflowCoordinator, never()).handleNodeCompletion(last);
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void acknowledgesABatchThatAppliesRecordByRecord() {
+        doThrow(new IllegalStateException("batch")).when(workflowCoordinator).handleNodeCompletions(any());
+
+        consumer(false).handleNodeCompletions(List.of(first, failing, last), acknowledgment);
+
+        verify(workflowCoordinator).handleNodeCompletion(first);
+        verify(workflowCoordinator).handleNodeCompletion(failing);
+        verify(workflowCoordinator).handleNodeCompletion(last);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void rethrowsAFailedBatchInTransactionalMode() {
+        doThrow(new IllegalStateException("batch")).when(workflowCoordinator).handleNodeCompletions(any());
+
+        assertThatThrownBy(() -> consumer(true).handleNodeCompletions(List.of(first, last), acknowledgment))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(workflowCoordinator, never()).handleNodeCompletion(any());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    private NodeCompletionConsumer consumer(boolean transactional) {
+        return new NodeCompletionConsumer(workflowCoordinator, new SimpleMeterRegistry(), transactional);
+    }
+
+    private NodeCompletionMessage completion(String nodeId) {
+        return NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .nodeId(nodeId)
+                .status("COMPLETED")
+                .build();
+    }
+}
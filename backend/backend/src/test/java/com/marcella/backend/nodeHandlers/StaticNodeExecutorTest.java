@@ -0,0 +1,217 @@
+package com.marcella.backend.nodeHandlers;
+
+import com.marcella.backend.configurations.PayloadStoreConfig;
+import com.marcella.backend.configurations.RetryConfig;
+import com.marcella.backend.services.KahnAlgoService;
+import com.marcella.backend.services.PayloadOffloadService;
+import com.marcella.backend.services.PayloadStore;
+import com.marcella.backend.services.WorkflowEventProducer;
+import com.marcella.backend.services.WorkflowTimerService;
+import com.marcella.backend.utils.WorkflowCodec;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import com.marcella.backend.workflow.NodeExecutionMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StaticNodeExecutorTest {
+
+    private static final String TOPIC = WorkflowEventProducer.SPRING_NODES_TOPIC;
+
+    private final KafkaListenerEndpointRegistry listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final Set<TopicPartition> paused = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolTaskExecutor workerPool = new ThreadPoolTaskExecutor();
+    private final WorkflowEventProducer eventProducer = mock(WorkflowEventProducer.class);
+    private final WorkflowTimerService timerService = mock(WorkflowTimerService.class);
+
+    private StaticNodeExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        when(listenerRegistry.getListenerContainer(any())).thenReturn(container);
+        when(container.isPartitionPauseRequested(any())).thenAnswer(invocation -> paused.contains(invocation.getArgument(0)));
+        doAnswer(invocation -> paused.add(invocation.getArgument(0))).when(container).pausePartition(any());
+        doAnswer(invocation -> paused.remove(invocation.getArgument(0))).when(container).resumePartition(any());
+
+        workerPool.setCorePoolSize(4);
+        workerPool.initialize();
+
+        doReturn(CompletableFuture.completedFuture(null)).when(eventProducer).publishNodeCompletion(any());
+
+        executor = new StaticNodeExecutor(List.of(), eventProducer, mock(KahnAlgoService.class),
+                timerService, mock(RetryConfig.class), mock(PayloadOffloadService.class),
+                listenerRegistry, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(executor, "nodeWorkerPool", workerPool);
+        ReflectionTestUtils.setField(executor, "asyncExecution", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workerPool.shutdown();
+    }
+
+    @Test
+    void resumesWhenTheWorkerFinishesBeforeThePause() {
+        ReflectionTestUtils.setField(executor, "nodeWorkerPool", inlinePool());
+        ReflectionTestUtils.setField(executor, "maxInFlightPerPartition", 1);
+
+        executor.executeNode(message(), TOPIC, 0, 0, () -> { });
+
+        assertThat(paused).isEmpty();
+    }
+
+    @Test
+    void handsTheCompletionToTheTimerStoreWhenTheSendFails() {
+        ReflectionTestUtils.setField(executor, "nodeWorkerPool", inlinePool());
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .when(eventProducer).publishNodeCompletion(any());
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        executor.executeNode(message(), TOPIC, 0, 0, acknowledgment);
+
+        verify(timerService).schedule(any(NodeCompletionMessage.class), any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void leavesTheRecordUnackedWhenTheCompletionCannotBeDelivered() {
+        ReflectionTestUtils.setField(executor, "nodeWorkerPool", inlinePool());
+        ReflectionTestUtils.setField(executor, "maxInFlightPerPartition", 1);
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .when(eventProducer).publishNodeCompletion(any());
+        doThrow(new IllegalStateException("redis down")).when(timerService).schedule(any(), any());
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        executor.executeNode(message(), TOPIC, 0, 0, acknowledgment);
+
+        verify(acknowledgment, never()).acknowledge();
+        assertThat(paused).isEmpty();
+    }
+
+    @Test
+    void nacksInSynchronousModeWhenTheCompletionCannotBeDelivered() {
+        ReflectionTestUtils.setField(executor, "asyncExecution", false);
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .when(eventProducer).publishNodeCompletion(any());
+        doThrow(new IllegalStateException("redis down")).when(timerService).schedule(any(), any());
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        executor.executeNode(message(), TOPIC, 0, 0, acknowledgment);
+
+        verify(acknowledgment, never()).acknowledge();
+        verify(acknowledgment).nack(any(Duration.class));
+    }
+
+    @Test
+    void neverLeavesAnIdlePartitionPaused() throws InterruptedException {
+        ReflectionTestUtils.setField(executor, "maxInFlightPerPartition", 2);
+        int messages = 2_000;
+        CountDownLatch acknowledged = new CountDownLatch(messages);
+        Acknowledgment acknowledgment = acknowledged::countDown;
+
+        for (int offset = 0; offset < messages; offset++) {
+            executor.executeNode(message(), TOPIC, 0, offset, acknowledgment);
+        }
+
+        assertThat(acknowledged.await(30, TimeUnit.SECONDS)).isTrue();
+        workerPool.shutdown();
+        assertThat(workerPool.getThreadPoolExecutor().awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(paused).isEmpty();
+    }
+
+    @Test
+    void stopsAFusedChainAtTheFirstFailedNode() {
+        List<String> executed = new ArrayList<>();
+        StaticNodeExecutor chainExecutor = new StaticNodeExecutor(List.of(
+                handler("transform", executed, null),
+                handler("httpGet", executed, new NodeExecutionException("upstream returned 500", Map.of("status", 500), null)),
+                handler("gmailSend", executed, null)),
+                mock(WorkflowEventProducer.class), mock(KahnAlgoService.class), mock(WorkflowTimerService.class),
+                new RetryConfig(), new PayloadOffloadService(mock(PayloadStore.class), new PayloadStoreConfig(),
+                new WorkflowCodec(WorkflowCodec.Format.JSON)), listenerRegistry, new SimpleMeterRegistry());
+
+        NodeCompletionMessage completion = chainExecutor.run(NodeExecutionMessage.builder()
+                .executionId(UUID.randomUUID())
+                .nodeId("shape")
+                .nodeType("transform")
+                .nodeData(Map.of())
+                .context(Map.of())
+                .globalVariables(Map.of())
+                .chainedNodes(List.of(
+                        NodeExecutionMessage.builder().nodeId("fetch").nodeType("httpGet").nodeData(Map.of()).build(),
+                        NodeExecutionMessage.builder().nodeId("send").nodeType("gmailSend").nodeData(Map.of()).build()))
+                .build());
+
+        assertThat(executed).containsExactly("shape", "fetch");
+        assertThat(completion.getStatus()).isEqualTo("FAILED");
+        assertThat(completion.getChainCompletions())
+                .extracting(NodeCompletionMessage::getNodeId, NodeCompletionMessage::getStatus)
+                .containsExactly(tuple("shape", "COMPLETED"), tuple("fetch", "FAILED"));
+        assertThat(completion.getDeferredNodes()).isEmpty();
+    }
+
+    private ThreadPoolTaskExecutor inlinePool() {
+        ThreadPoolTaskExecutor inline = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(inline).execute(any(Runnable.class));
+        return inline;
+    }
+
+    private NodeHandler handler(String type, List<String> executed, Exception failure) {
+        return new NodeHandler() {
+            @Override
+            public boolean canHandle(String nodeType) {
+                return type.equals(nodeType);
+            }
+
+            @Override
+            public Map<String, Object> execute(NodeExecutionMessage message) throws Exception {
+                executed.add(message.getNodeId());
+                if (failure != null) {
+                    throw failure;
+                }
+                return Map.of(message.getNodeId(), true);
+            }
+        };
+    }
+
+    private NodeExecutionMessage message() {
+        return NodeExecutionMessage.builder()
+                .executionId(UUID.randomUUID())
+                .nodeId("node")
+                .nodeType("unknown")
+                .build();
+    }
+}
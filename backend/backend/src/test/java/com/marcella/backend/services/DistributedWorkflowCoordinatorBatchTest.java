@@ -0,0 +1,63 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DistributedWorkflowCoordinatorBatchTest {
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+
+    @Test
+    void coalescesConsecutiveCompletionsOfAnExecution() {
+        NodeCompletionMessage a = completion(first, "a");
+        NodeCompletionMessage b = completion(second, "b");
+        NodeCompletionMessage c = completion(first, "c");
+
+        assertThat(DistributedWorkflowCoordinator.completionRuns(List.of(a, b, c)))
+                .containsExactly(List.of(a, c), List.of(b));
+    }
+
+    @Test
+    void keepsChainsInOffsetOrderWithinTheirExecution() {
+        NodeCompletionMessage a = completion(first, "a");
+        NodeCompletionMessage chain = chain(first, "chain");
+        NodeCompletionMessage b = completion(first, "b");
+        NodeCompletionMessage c = completion(first, "c");
+
+        assertThat(DistributedWorkflowCoordinator.completionRuns(List.of(a, chain, b, c)))
+                .containsExactly(List.of(a), List.of(chain), List.of(b, c));
+    }
+
+    @Test
+    void keepsSingleCompletionsInPlace() {
+        NodeCompletionMessage chain = chain(first, "chain");
+        NodeCompletionMessage a = completion(first, "a");
+        NodeCompletionMessage b = completion(second, "b");
+
+        assertThat(DistributedWorkflowCoordinator.completionRuns(List.of(chain, b, a)))
+                .containsExactly(List.of(chain), List.of(a), List.of(b));
+    }
+
+    private NodeCompletionMessage completion(UUID executionId, String nodeId) {
+        return NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .nodeId(nodeId)
+                .status("COMPLETED")
+                .build();
+    }
+
+    private NodeCompletionMessage chain(UUID executionId, String nodeId) {
+        return NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .nodeId(nodeId)
+                .status("COMPLETED")
+                .chainCompletions(List.of(completion(executionId, nodeId)))
+                .build();
+    }
+}
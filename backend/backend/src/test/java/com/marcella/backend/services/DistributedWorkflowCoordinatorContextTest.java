@@ -0,0 +1,73 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.nodeHandlers.StaticNodeExecutor;
+import com.marcella.backend.repositories.ExecutionRepository;
+import com.marcella.backend.repositories.WorkflowRepository;
+import com.marcella.backend.workflow.ExecutionContext;
+import com.marcella.backend.workflow.ExecutionPlan;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcella.backend.services.KahnAlgoServiceTest.edge;
+import static com.marcella.backend.services.KahnAlgoServiceTest.node;
+import static com.marcella.backend.services.KahnAlgoServiceTest.plan;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DistributedWorkflowCoordinatorContextTest {
+
+    private final DistributedWorkflowCoordinator coordinator = new DistributedWorkflowCoordinator(
+            mock(WorkflowRepository.class), mock(ExecutionContextService.class), mock(KahnAlgoService.class),
+            mock(WorkflowEventProducer.class), mock(ExecutionService.class), mock(WorkflowPlanCache.class),
+            mock(ExecutionRepository.class), mock(ReturnHandlerService.class), mock(StaticNodeExecutor.class),
+            mock(PayloadOffloadService.class), mock(ExecutionLifecycleService.class),
+            mock(RedisUnitOfWorkFactory.class), mock(ExecutionCheckpointService.class),
+            mock(TransactionTemplate.class));
+
+    private final ExecutionPlan plan = plan(
+            List.of(node("start", "start"), node("fetch", "httpGet"), node("shape", "transform"),
+                    node("send", "gmailSend")),
+            List.of(edge("start", "fetch"), edge("fetch", "shape"), edge("shape", "send")));
+
+    private final ExecutionContext context = ExecutionContext.builder()
+            .globalVariables(new HashMap<>(Map.of("user", "ada")))
+            .nodeOutputs(new HashMap<>(Map.of(
+                    "start", Map.of("started", true),
+                    "fetch", Map.of("body", "payload", "status", 200),
+                    "shape", Map.of("subject", "hello"))))
+            .build();
+
+    @Test
+    void exposesEveryAncestorOutputKey() {
+        Map<String, Object> nodeContext = buildNodeContext("send");
+
+        assertThat(nodeContext.get("shape_output")).isEqualTo(Map.of("subject", "hello"));
+        assertThat(nodeContext.get("fetch_output")).isEqualTo(Map.of("body", "payload", "status", 200));
+        assertThat(nodeContext.get("start_output")).isEqualTo(Map.of("started", true));
+        assertThat(nodeContext.get("subject")).isEqualTo("hello");
+        assertThat(nodeContext.get("body")).isEqualTo("payload");
+        assertThat(nodeContext.get("user")).isEqualTo("ada");
+    }
+
+    @Test
+    void legacyModeExposesFullAncestorViews() {
+        ReflectionTestUtils.setField(coordinator, "legacyOutputKeys", true);
+
+        Map<String, Object> nodeContext = buildNodeContext("send");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> fetchView = (Map<String, Object>) nodeContext.get("fetch_output");
+        assertThat(fetchView.get("body")).isEqualTo("payload");
+        assertThat(fetchView.get("started")).isEqualTo(true);
+        assertThat(fetchView.get("user")).isEqualTo("ada");
+    }
+
+    private Map<String, Object> buildNodeContext(String nodeId) {
+        return ReflectionTestUtils.invokeMethod(coordinator, "buildNodeContext", plan, nodeId, context);
+    }
+}
@@ -0,0 +1,81 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.nodeHandlers.StaticNodeExecutor;
+import com.marcella.backend.repositories.ExecutionRepository;
+import com.marcella.backend.repositories.WorkflowRepository;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DistributedWorkflowCoordinatorFailureTest {
+
+    private final KahnAlgoService kahnService = mock(KahnAlgoService.class);
+    private final RedisUnitOfWorkFactory unitOfWorkFactory = mock(RedisUnitOfWorkFactory.class);
+    private final RedisUnitOfWork unitOfWork = mock(RedisUnitOfWork.class);
+    private final UUID executionId = UUID.randomUUID();
+
+    private final DistributedWorkflowCoordinator coordinator = new DistributedWorkflowCoordinator(
+            mock(WorkflowRepository.class), mock(ExecutionContextService.class), kahnService,
+            mock(WorkflowEventProducer.class), mock(ExecutionService.class), mock(WorkflowPlanCache.class),
+            mock(ExecutionRepository.class), mock(ReturnHandlerService.class), mock(StaticNodeExecutor.class),
+            mock(PayloadOffloadService.class), mock(ExecutionLifecycleService.class),
+            unitOfWorkFactory, mock(ExecutionCheckpointService.class), mock(TransactionTemplate.class));
+
+    @BeforeEach
+    void setUp() {
+        when(unitOfWorkFactory.begin()).thenReturn(unitOfWork);
+    }
+
+    @Test
+    void infrastructureFailuresRollBackTheTransactionalPoll() {
+        ReflectionTestUtils.setField(coordinator, "transactionalDispatch", true);
+        when(unitOfWork.read(anyList())).thenThrow(new RedisConnectionFailureException("redis down"));
+
+        assertThatThrownBy(() -> coordinator.handleNodeCompletion(completion()))
+                .isInstanceOf(RedisConnectionFailureException.class);
+        verify(kahnService, never()).markAborted(any());
+    }
+
+    @Test
+    void workflowFailuresStillAbortTheExecution() {
+        ReflectionTestUtils.setField(coordinator, "transactionalDispatch", true);
+        when(unitOfWork.read(anyList())).thenReturn(Arrays.asList(false, false, null));
+
+        assertThatCode(() -> coordinator.handleNodeCompletion(completion())).doesNotThrowAnyException();
+        verify(kahnService).markAborted(executionId);
+    }
+
+    @Test
+    void atLeastOnceModeAbortsOnInfrastructureFailures() {
+        when(unitOfWork.read(anyList())).thenThrow(new RedisConnectionFailureException("redis down"));
+
+        assertThatCode(() -> coordinator.handleNodeCompletion(completion())).doesNotThrowAnyException();
+        verify(kahnService).markAborted(executionId);
+    }
+
+    private NodeCompletionMessage completion() {
+        return NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .nodeId("fetch")
+                .status("COMPLETED")
+                .output(Map.of("status", 200))
+                .attempt(1)
+                .build();
+    }
+}
@@ -0,0 +1,269 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.configurations.PayloadStoreConfig;
+import com.marcella.backend.configurations.RetryConfig;
+import com.marcella.backend.entities.Execution;
+import com.marcella.backend.entities.Workflows;
+import com.marcella.backend.nodeHandlers.NodeHandler;
+import com.marcella.backend.nodeHandlers.StaticNodeExecutor;
+import com.marcella.backend.repositories.ExecutionRepository;
+import com.marcella.backend.repositories.WorkflowRepository;
+import com.marcella.backend.support.EmbeddedRedisSupport;
+import com.marcella.backend.utils.WorkflowCodec;
+import com.marcella.backend.workflow.ExecutionPlan;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import com.marcella.backend.workflow.NodeExecutionMessage;
+import com.marcella.backend.workflow.WorkflowDefinition;
+import com.marcella.backend.workflow.WorkflowEdge;
+import com.marcella.backend.workflow.WorkflowNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static com.marcella.backend.services.KahnAlgoServiceTest.edge;
+import static com.marcella.backend.services.KahnAlgoServiceTest.node;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DistributedWorkflowCoordinatorFlowTest extends EmbeddedRedisSupport {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WorkflowCodec codec = new WorkflowCodec(WorkflowCodec.Format.SMILE);
+    private final WorkflowRepository workflowRepository = mock(WorkflowRepository.class);
+    private final WorkflowEventProducer eventProducer = mock(WorkflowEventProducer.class);
+    private final ExecutionService executionService = mock(ExecutionService.class);
+    private final ExecutionRepository executionRepository = mock(ExecutionRepository.class);
+    private final WorkflowPlanCache planCache = mock(WorkflowPlanCache.class);
+    private final ExecutionLifecycleService lifecycleService = mock(ExecutionLifecycleService.class);
+    private final ExecutionCheckpointService checkpointService = mock(ExecutionCheckpointService.class);
+    private final List<NodeHandler> handlers = new ArrayList<>();
+
+    private final UUID executionId = UUID.randomUUID();
+    private final Workflows workflow = Workflows.builder().id(UUID.randomUUID()).name("workflow").version(1L).build();
+    private final Execution execution = Execution.builder().id(executionId).status("RUNNING").build();
+
+    private KahnAlgoService kahnService;
+    private DistributedWorkflowCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        kahnService = new KahnAlgoService();
+        ReflectionTestUtils.setField(kahnService, "customStringRedisTemplate", stringRedisTemplate);
+
+        ExecutionStateNearCache nearCache = new ExecutionStateNearCache(stringRedisTemplate,
+                mock(RedisMessageListenerContainer.class), meterRegistry, false, 0);
+        ExecutionContextService contextService = new ExecutionContextService(redisTemplate, codec, kahnService, nearCache);
+        ReflectionTestUtils.setField(contextService, "customStringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(contextService, "contextRedisTemplate", contextRedisTemplate);
+
+        PayloadOffloadService payloadService = new PayloadOffloadService(mock(PayloadStore.class),
+                new PayloadStoreConfig(), codec);
+        ReturnHandlerService returnHandler = new ReturnHandlerService(redisTemplate, payloadService, codec);
+        ReflectionTestUtils.setField(returnHandler, "contextRedisTemplate", contextRedisTemplate);
+
+        StaticNodeExecutor staticNodeExecutor = new StaticNodeExecutor(handlers, eventProducer, kahnService,
+                mock(WorkflowTimerService.class), new RetryConfig(), payloadService,
+                mock(KafkaListenerEndpointRegistry.class), meterRegistry);
+
+        coordinator = new DistributedWorkflowCoordinator(workflowRepository, contextService, kahnService,
+                eventProducer, executionService, planCache, executionRepository, returnHandler, staticNodeExecutor,
+                payloadService, lifecycleService, new RedisUnitOfWorkFactory(contextRedisTemplate, meterRegistry),
+                checkpointService, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+        when(workflowRepository.findById(workflow.getId())).thenReturn(Optional.of(workflow));
+        when(executionRepository.findById(executionId)).thenReturn(Optional.of(execution));
+        when(executionService.startExecution(workflow)).thenReturn(execution);
+    }
+
+    @Test
+    void runsCheapNodesInlineAndDispatchesTheRest() {
+        handlers.add(new StubHandler("start", Map.of("started", true)));
+        handlers.add(new StubHandler("calculator", Map.of("result", 42)));
+        usePlan(List.of(node("start", "start"), node("calc", "calculator"), node("mail", "gmailSend")),
+                List.of(edge("start", "calc"), edge("calc", "mail")));
+
+        coordinator.startWorkflowExecution(workflow.getId(), Map.of("user", "ada"), null);
+
+        List<NodeExecutionMessage> dispatched = dispatched();
+        assertThat(dispatched).extracting(NodeExecutionMessage::getNodeId).containsExactly("mail");
+        assertThat(dispatched.get(0).getContext().get("result")).isEqualTo(42);
+        assertThat(dispatched.get(0).getContext().get("user")).isEqualTo("ada");
+        assertThat(stringRedisTemplate.opsForSet().members("execution:completed:" + executionId))
+                .containsExactlyInAnyOrder("start", "calc");
+    }
+
+    @Test
+    void projectsTheDispatchedContextOntoTheReferencedKeys() {
+        handlers.add(new StubHandler("start", Map.of("started", true)));
+        handlers.add(new StubHandler("calculator", Map.of("result", 42, "scratch", "unused")));
+        WorkflowNode mail = WorkflowNode.builder().id("mail").type("gmailSend")
+                .data(Map.of("to", "{{user}}", "body", "Total: {{result}}")).build();
+        usePlan(List.of(node("start", "start"), node("calc", "calculator"), mail),
+                List.of(edge("start", "calc"), edge("calc", "mail")),
+                type -> Set.of("googleAccessToken"));
+
+        coordinator.startWorkflowExecution(workflow.getId(), Map.of("user", "ada", "secret", "s3cr3t"), null);
+
+        List<NodeExecutionMessage> dispatched = dispatched();
+        assertThat(dispatched).extracting(NodeExecutionMessage::getNodeId).containsExactly("mail");
+        assertThat(dispatched.get(0).getContext()).isEqualTo(Map.of("user", "ada", "result", 42));
+    }
+
+    @Test
+    void dispatchesAFusedChainOnceAndAppliesEveryStep() {
+        handlers.add(new StubHandler("start", Map.of("started", true)));
+        usePlan(List.of(node("start", "start"), node("shape", "transform"), node("fetch", "httpGet"),
+                        node("send", "gmailSend")),
+                List.of(edge("start", "shape"), edge("shape", "fetch"), edge("fetch", "send")));
+
+        coordinator.startWorkflowExecution(workflow.getId(), Map.of(), null);
+
+        List<NodeExecutionMessage> dispatched = dispatched();
+        assertThat(dispatched).extracting(NodeExecutionMessage::getNodeId).containsExactly("shape");
+        assertThat(dispatched.get(0).getChainedNodes()).extracting(NodeExecutionMessage::getNodeId)
+                .containsExactly("fetch", "send");
+
+        coordinator.handleNodeCompletion(chainCompletion("shape",
+                completion("shape", "COMPLETED"), completion("fetch", "COMPLETED"), completion("send", "COMPLETED")));
+
+        assertThat(dispatched()).hasSize(1);
+        assertThat(stringRedisTemplate.opsForSet().members("execution:completed:" + executionId))
+                .containsExactlyInAnyOrder("start", "shape", "fetch", "send");
+        verify(executionService).completeExecution(eq(execution), any());
+    }
+
+    @Test
+    void failingNodeAbortsTheExecutionAndDropsLaterCompletions() {
+        handlers.add(new StubHandler("start", Map.of("started", true)));
+        usePlan(List.of(node("start", "start"), node("a", "httpGet"), node("b", "httpGet"), node("c", "gmailSend")),
+                List.of(edge("start", "a"), edge("start", "b"), edge("a", "c")));
+
+        coordinator.startWorkflowExecution(workflow.getId(), Map.of(), null);
+        coordinator.handleNodeCompletion(completion("a", "FAILED"));
+        coordinator.handleNodeCompletion(completion("b", "COMPLETED"));
+
+        verify(executionService).failExecution(eq(execution), contains("Node a failed"));
+        assertThat(dispatched()).extracting(NodeExecutionMessage::getNodeId).containsExactlyInAnyOrder("a", "b");
+        assertThat(stringRedisTemplate.opsForSet().members("execution:completed:" + executionId))
+                .containsExactly("start");
+        verify(executionService, never()).completeExecution(any(), any());
+    }
+
+    @Test
+    void skipPolicyPrunesTheFailedBranchAndFinishesTheRest() {
+        handlers.add(new StubHandler("start", Map.of("started", true)));
+        WorkflowNode optional = WorkflowNode.builder().id("a").type("httpGet").data(Map.of("onError", "skip")).build();
+        usePlan(List.of(node("start", "start"), optional, node("b", "httpGet"), node("c", "gmailSend")),
+                List.of(edge("start", "a"), edge("start", "b"), edge("a", "c")));
+
+        coordinator.startWorkflowExecution(workflow.getId(), Map.of(), null);
+        coordinator.handleNodeCompletion(completion("a", "FAILED"));
+        coordinator.handleNodeCompletion(completion("b", "COMPLETED"));
+
+        verify(executionService, never()).failExecution(any(), any());
+        verify(executionService).completeExecution(eq(execution), any());
+        assertThat(dispatched()).extracting(NodeExecutionMessage::getNodeId).containsExactlyInAnyOrder("a", "b");
+        assertThat(stringRedisTemplate.opsForSet().members("execution:skipped:" + executionId)).containsExactly("c");
+    }
+
+    @Test
+    void ignoresARedeliveredCompletion() {
+        handlers.add(new StubHandler("start", Map.of("started", true)));
+        usePlan(List.of(node("start", "start"), node("a", "httpGet"), node("b", "gmailSend")),
+                List.of(edge("start", "a"), edge("a", "b")));
+
+        coordinator.startWorkflowExecution(workflow.getId(), Map.of(), null);
+        coordinator.handleNodeCompletion(completion("a", "COMPLETED"));
+        coordinator.handleNodeCompletion(completion("a", "COMPLETED"));
+        coordinator.handleNodeCompletions(List.of(completion("a", "COMPLETED"), completion("a", "COMPLETED")));
+
+        assertThat(dispatched()).extracting(NodeExecutionMessage::getNodeId).containsExactly("a", "b");
+        assertThat(stringRedisTemplate.opsForSet().members("execution:completed:" + executionId))
+                .containsExactlyInAnyOrder("start", "a");
+        verify(executionService, never()).failExecution(any(), any());
+    }
+
+    private NodeCompletionMessage completion(String nodeId, String status) {
+        return NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .workflowId(workflow.getId())
+                .nodeId(nodeId)
+                .status(status)
+                .output(Map.of(nodeId, status))
+                .attempt(1)
+                .build();
+    }
+
+    private NodeCompletionMessage chainCompletion(String headNodeId, NodeCompletionMessage... steps) {
+        boolean failed = Arrays.stream(steps).anyMatch(step -> "FAILED".equals(step.getStatus()));
+        return NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .workflowId(workflow.getId())
+                .nodeId(headNodeId)
+                .status(failed ? "FAILED" : "COMPLETED")
+                .chainCompletions(List.of(steps))
+                .deferredNodes(List.of())
+                .build();
+    }
+
+    private List<NodeExecutionMessage> dispatched() {
+        ArgumentCaptor<NodeExecutionMessage> messages = ArgumentCaptor.forClass(NodeExecutionMessage.class);
+        verify(eventProducer, atLeast(0)).publishNodeExecution(anyString(), messages.capture());
+        return messages.getAllValues();
+    }
+
+    private ExecutionPlan usePlan(List<WorkflowNode> nodes, List<WorkflowEdge> edges) {
+        return usePlan(nodes, edges, null);
+    }
+
+    private ExecutionPlan usePlan(List<WorkflowNode> nodes, List<WorkflowEdge> edges,
+                                  Function<String, Set<String>> contextAllowList) {
+        WorkflowDefinition definition = WorkflowDefinition.builder()
+                .id(workflow.getId())
+                .name(workflow.getName())
+                .nodes(nodes)
+                .edges(edges)
+                .build();
+        ExecutionPlan plan = new KahnAlgoService().buildExecutionPlan(definition, workflow.getVersion(),
+                type -> WorkflowEventProducer.SPRING_NODES_TOPIC, Set.of("start", "calculator"), contextAllowList);
+        when(planCache.getPlan(workflow)).thenReturn(plan);
+        when(planCache.getPlan(eq(workflow.getId()), any())).thenReturn(plan);
+        return plan;
+    }
+
+    private record StubHandler(String type, Map<String, Object> output) implements NodeHandler {
+
+        @Override
+        public boolean canHandle(String nodeType) {
+            return type.equals(nodeType);
+        }
+
+        @Override
+        public Map<String, Object> execute(NodeExecutionMessage message) {
+            return output;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.entities.ExecutionCheckpoint;
+import com.marcella.backend.repositories.ExecutionCheckpointRepository;
+import com.marcella.backend.support.EmbeddedRedisSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExecutionCheckpointServiceTest extends EmbeddedRedisSupport {
+
+    private static final String ACTIVITY_KEY = "workflow:lifecycle:activity";
+
+    private final ExecutionCheckpointRepository checkpointRepository = mock(ExecutionCheckpointRepository.class);
+    private final ExecutionContextService contextService = mock(ExecutionContextService.class);
+    private final KahnAlgoService kahnService = mock(KahnAlgoService.class);
+    private final ReturnHandlerService returnHandler = mock(ReturnHandlerService.class);
+    private final Map<UUID, ExecutionCheckpoint> checkpoints = new HashMap<>();
+    private final UUID executionId = UUID.randomUUID();
+
+    private ExecutionCheckpointService checkpointService;
+
+    @BeforeEach
+    void setUp() {
+        when(contextService.executionKeys(any())).thenAnswer(invocation -> List.of(key(invocation.getArgument(0), "context")));
+        when(kahnService.stateKeys(any())).thenAnswer(invocation -> List.of(key(invocation.getArgument(0), "indegree")));
+        when(returnHandler.returnKeys(any())).thenReturn(List.of());
+        when(checkpointRepository.save(any())).thenAnswer(invocation -> {
+            ExecutionCheckpoint checkpoint = invocation.getArgument(0);
+            checkpoints.put(checkpoint.getExecutionId(), checkpoint);
+            return checkpoint;
+        });
+        when(checkpointRepository.findById(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(checkpoints.get(invocation.<UUID>getArgument(0))));
+        doAnswer(invocation -> checkpoints.remove(invocation.<UUID>getArgument(0)))
+                .when(checkpointRepository).deleteById(any());
+
+        checkpointService = new ExecutionCheckpointService(checkpointRepository, contextService, kahnService,
+                returnHandler, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(checkpointService, "customStringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(checkpointService, "contextRedisTemplate", contextRedisTemplate);
+        ReflectionTestUtils.setField(checkpointService, "enabled", true);
+        ReflectionTestUtils.setField(checkpointService, "idleMs", 0L);
+        ReflectionTestUtils.setField(checkpointService, "batchSize", 10);
+
+        stringRedisTemplate.opsForHash().put(key(executionId, "context"), "workflowId", "wf");
+        stringRedisTemplate.opsForHash().put(key(executionId, "indegree"), "a", "1");
+        stringRedisTemplate.opsForValue().set(key(executionId, "openai_api_key"), "sk-test");
+    }
+
+    @Test
+    void evictsIdleExecutionsAndRestoresThem() throws InterruptedException {
+        touch(executionId);
+        Thread.sleep(2);
+
+        checkpointService.checkpointIdleExecutions();
+
+        assertThat(checkpoints).containsKey(executionId);
+        assertThat(stringRedisTemplate.hasKey(key(executionId, "context"))).isFalse();
+        assertThat(stringRedisTemplate.hasKey(key(executionId, "indegree"))).isFalse();
+        assertThat(stringRedisTemplate.opsForZSet().score(ACTIVITY_KEY, executionId.toString())).isNull();
+
+        assertThat(checkpointService.restore(executionId)).isTrue();
+
+        assertThat(stringRedisTemplate.opsForHash().get(key(executionId, "context"), "workflowId")).isEqualTo("wf");
+        assertThat(stringRedisTemplate.opsForHash().get(key(executionId, "indegree"), "a")).isEqualTo("1");
+        assertThat(stringRedisTemplate.opsForZSet().score(ACTIVITY_KEY, executionId.toString())).isNotNull();
+        assertThat(checkpoints).doesNotContainKey(executionId);
+    }
+
+    @Test
+    void keepsTheApiKeyInFlightNodesStillRead() throws InterruptedException {
+        touch(executionId);
+        Thread.sleep(2);
+
+        checkpointService.checkpointIdleExecutions();
+
+        assertThat(stringRedisTemplate.opsForValue().get(key(executionId, "openai_api_key"))).isEqualTo("sk-test");
+        assertThat(checkpointService.executionKeys(executionId)).contains(key(executionId, "openai_api_key"));
+    }
+
+    @Test
+    void backsOffWhenTheExecutionIsTouchedWhileCheckpointing() throws InterruptedException {
+        touch(executionId);
+        Thread.sleep(2);
+        doAnswer(invocation -> {
+            ExecutionCheckpoint checkpoint = invocation.getArgument(0);
+            checkpoints.put(checkpoint.getExecutionId(), checkpoint);
+            touch(executionId);
+            return checkpoint;
+        }).when(checkpointRepository).save(any());
+
+        checkpointService.checkpointIdleExecutions();
+
+        assertThat(stringRedisTemplate.hasKey(key(executionId, "context"))).isTrue();
+        assertThat(stringRedisTemplate.opsForZSet().score(ACTIVITY_KEY, executionId.toString())).isPositive();
+        assertThat(checkpoints).doesNotContainKey(executionId);
+    }
+
+    @Test
+    void givesTheClaimBackWhenTheCheckpointFails() throws InterruptedException {
+        touch(executionId);
+        Double lastActivity = stringRedisTemplate.opsForZSet().score(ACTIVITY_KEY, executionId.toString());
+        Thread.sleep(2);
+        doThrow(new IllegalStateException("database down")).when(checkpointRepository).save(any());
+
+        checkpointService.checkpointIdleExecutions();
+
+        assertThat(stringRedisTemplate.opsForZSet().score(ACTIVITY_KEY, executionId.toString())).isEqualTo(lastActivity);
+        assertThat(stringRedisTemplate.hasKey(key(executionId, "context"))).isTrue();
+
+        doAnswer(invocation -> {
+            ExecutionCheckpoint checkpoint = invocation.getArgument(0);
+            checkpoints.put(checkpoint.getExecutionId(), checkpoint);
+            return checkpoint;
+        }).when(checkpointRepository).save(any());
+        checkpointService.checkpointIdleExecutions();
+
+        assertThat(checkpoints).containsKey(executionId);
+        assertThat(stringRedisTemplate.hasKey(key(executionId, "context"))).isFalse();
+    }
+
+    @Test
+    void keepsKeysWrittenAfterTheCheckpointWhenRestoring() throws InterruptedException {
+        touch(executionId);
+        Thread.sleep(2);
+        checkpointService.checkpointIdleExecutions();
+        stringRedisTemplate.opsForHash().put(key(executionId, "context"), "workflowId", "newer");
+
+        assertThat(checkpointService.restore(executionId)).isTrue();
+
+        assertThat(stringRedisTemplate.opsForHash().get(key(executionId, "context"), "workflowId")).isEqualTo("newer");
+        assertThat(stringRedisTemplate.opsForHash().get(key(executionId, "indegree"), "a")).isEqualTo("1");
+    }
+
+    @Test
+    void restoresACheckpointOnlyOnce() throws InterruptedException {
+        touch(executionId);
+        Thread.sleep(2);
+        checkpointService.checkpointIdleExecutions();
+        stringRedisTemplate.opsForValue().set("workflow:checkpoint:restoring:" + executionId, "1");
+        when(contextService.hasContext(executionId)).thenReturn(true);
+
+        assertThat(checkpointService.restore(executionId)).isTrue();
+
+        assertThat(stringRedisTemplate.hasKey(key(executionId, "indegree"))).isFalse();
+        assertThat(checkpoints).containsKey(executionId);
+
+        stringRedisTemplate.delete("workflow:checkpoint:restoring:" + executionId);
+        assertThat(checkpointService.restore(executionId)).isTrue();
+        assertThat(checkpointService.restore(executionId)).isTrue();
+        assertThat(checkpoints).doesNotContainKey(executionId);
+
+        when(contextService.hasContext(executionId)).thenReturn(false);
+        assertThat(checkpointService.restore(executionId)).isFalse();
+    }
+
+    @Test
+    void concurrentSweepsDoNotClaimTheSameExecution() throws InterruptedException {
+        touch(executionId);
+        Thread.sleep(2);
+        stringRedisTemplate.opsForZSet().add(ACTIVITY_KEY, executionId.toString(), 0);
+
+        checkpointService.checkpointIdleExecutions();
+
+        assertThat(checkpoints).isEmpty();
+        assertThat(stringRedisTemplate.hasKey(key(executionId, "context"))).isTrue();
+    }
+
+    @Test
+    void leavesRecentlyActiveExecutionsAlone() {
+        ReflectionTestUtils.setField(checkpointService, "idleMs", 60_000L);
+        touch(executionId);
+
+        checkpointService.checkpointIdleExecutions();
+
+        assertThat(checkpoints).isEmpty();
+        assertThat(stringRedisTemplate.hasKey(key(executionId, "context"))).isTrue();
+    }
+
+    private void touch(UUID id) {
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+            checkpointService.touch(connection, id);
+            return null;
+        });
+    }
+
+    private static String key(UUID id, String suffix) {
+        return "execution:" + id + ":" + suffix;
+    }
+}
@@ -0,0 +1,122 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.support.EmbeddedRedisSupport;
+import com.marcella.backend.utils.WorkflowCodec;
+import com.marcella.backend.workflow.ExecutionContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ExecutionContextServiceTest extends EmbeddedRedisSupport {
+
+    private final UUID executionId = UUID.randomUUID();
+
+    @ParameterizedTest
+    @EnumSource(WorkflowCodec.Format.class)
+    void roundTripsTheContextHash(WorkflowCodec.Format format) {
+        ExecutionContextService contextService = contextService(format);
+        ExecutionContext context = context();
+        context.getNodeOutputs().put("fetch", new HashMap<>(Map.of("body", "payload", "status", 200)));
+
+        contextService.storeContext(executionId, context);
+        ExecutionContext loaded = contextService.getContext(executionId, List.of("fetch", "missing"));
+
+        assertThat(loaded.getWorkflowId()).isEqualTo(context.getWorkflowId());
+        assertThat(loaded.getStartTime()).isEqualTo(context.getStartTime());
+        assertThat(loaded.getGlobalVariables()).isEqualTo(context.getGlobalVariables());
+        assertThat(loaded.getNodeOutputs()).containsOnlyKeys("fetch");
+        assertThat(loaded.getNodeOutputs().get("fetch")).isEqualTo(Map.of("body", "payload", "status", 200));
+    }
+
+    @Test
+    void writesEachNodeOutputToItsOwnHashField() {
+        ExecutionContextService contextService = contextService(WorkflowCodec.Format.SMILE);
+        contextService.storeContext(executionId, context());
+        String contextKey = "execution:context:" + executionId;
+        byte[] globals = (byte[]) contextRedisTemplate.opsForHash().get(contextKey, "globals");
+
+        contextRedisTemplate.execute((RedisCallback<Object>) connection -> {
+            contextService.writeNodeOutput(connection, executionId, "fetch", Map.of("status", 200));
+            contextService.writeNodeOutput(connection, executionId, "parse", Map.of("rows", 3));
+            return null;
+        });
+
+        assertThat(contextRedisTemplate.opsForHash().keys(contextKey))
+                .containsExactlyInAnyOrder("meta", "globals", "output:fetch", "output:parse");
+        assertThat((byte[]) contextRedisTemplate.opsForHash().get(contextKey, "globals")).isEqualTo(globals);
+        assertThat(contextRedisTemplate.getExpire(contextKey)).isPositive();
+
+        ExecutionContext loaded = contextService.getContext(executionId, List.of("parse"));
+        assertThat(loaded.getNodeOutputs()).containsOnlyKeys("parse");
+        assertThat(loaded.getNodeOutputs().get("parse")).isEqualTo(Map.of("rows", 3));
+    }
+
+    @Test
+    void readsFieldsWrittenByTheLegacyTypedSerializer() {
+        ExecutionContextService contextService = contextService(WorkflowCodec.Format.SMILE);
+        ExecutionContext context = context();
+
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> legacy = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+        String contextKey = "execution:context:" + executionId;
+        contextRedisTemplate.opsForHash().put(contextKey, "meta", legacy.serialize(context));
+        contextRedisTemplate.opsForHash().put(contextKey, "globals", legacy.serialize(context.getGlobalVariables()));
+        contextRedisTemplate.opsForHash().put(contextKey, "output:fetch",
+                legacy.serialize(new HashMap<>(Map.of("body", "payload"))));
+
+        ExecutionContext loaded = contextService.getContext(executionId, List.of("fetch"));
+
+        assertThat(loaded.getWorkflowId()).isEqualTo(context.getWorkflowId());
+        assertThat(loaded.getGlobalVariables()).isEqualTo(context.getGlobalVariables());
+        assertThat(loaded.getNodeOutputs().get("fetch")).isEqualTo(Map.of("body", "payload"));
+    }
+
+    @Test
+    void mixesLegacyAndCodecFieldsInOneHash() {
+        ExecutionContextService contextService = contextService(WorkflowCodec.Format.JSON);
+        contextService.storeContext(executionId, context());
+
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> legacy = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+        contextRedisTemplate.opsForHash().put("execution:context:" + executionId, "output:old",
+                legacy.serialize(new HashMap<>(Map.of("value", 1))));
+
+        assertThat(contextService.getContext(executionId).getNodeOutputs().get("old")).isEqualTo(Map.of("value", 1));
+    }
+
+    private ExecutionContextService contextService(WorkflowCodec.Format format) {
+        ExecutionStateNearCache nearCache = new ExecutionStateNearCache(stringRedisTemplate,
+                mock(RedisMessageListenerContainer.class), new SimpleMeterRegistry(), false, 0);
+        ExecutionContextService contextService = new ExecutionContextService(redisTemplate,
+                new WorkflowCodec(format), new KahnAlgoService(), nearCache);
+        ReflectionTestUtils.setField(contextService, "customStringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(contextService, "contextRedisTemplate", contextRedisTemplate);
+        return contextService;
+    }
+
+    private ExecutionContext context() {
+        return ExecutionContext.builder()
+                .executionId(executionId)
+                .workflowId(UUID.randomUUID())
+                .workflowVersion(3L)
+                .status(ExecutionContext.ExecutionStatus.RUNNING)
+                .startTime(Instant.parse("2026-01-01T00:00:00Z"))
+                .globalVariables(new HashMap<>(Map.of("user", "ada", "count", 2)))
+                .nodeOutputs(new HashMap<>())
+                .build();
+    }
+}
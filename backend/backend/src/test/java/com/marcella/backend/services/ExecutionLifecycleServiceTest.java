@@ -0,0 +1,81 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.support.EmbeddedRedisSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExecutionLifecycleServiceTest extends EmbeddedRedisSupport {
+
+    private static final String REAP_KEY = "workflow:lifecycle:reap";
+
+    private final ExecutionContextService contextService = mock(ExecutionContextService.class);
+    private final ExecutionCheckpointService checkpointService = mock(ExecutionCheckpointService.class);
+    private final PayloadOffloadService payloadService = mock(PayloadOffloadService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutionLifecycleService lifecycleService =
+            new ExecutionLifecycleService(contextService, checkpointService, payloadService, meterRegistry);
+
+    private final UUID completed = UUID.randomUUID();
+    private final UUID failed = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(lifecycleService, "customStringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(lifecycleService, "completedGraceMs", 0L);
+        ReflectionTestUtils.setField(lifecycleService, "failedGraceMs", 60_000L);
+        ReflectionTestUtils.setField(lifecycleService, "batchSize", 10);
+        ReflectionTestUtils.setField(lifecycleService, "memoryAccounting", false);
+
+        for (UUID executionId : List.of(completed, failed)) {
+            List<String> keys = List.of("execution:context:" + executionId, "execution:completed:" + executionId);
+            keys.forEach(key -> stringRedisTemplate.opsForValue().set(key, "state"));
+            when(checkpointService.executionKeys(executionId)).thenReturn(keys);
+        }
+    }
+
+    @Test
+    void holdsFailedExecutionsForTheirLongerGracePeriod() {
+        long now = System.currentTimeMillis();
+        lifecycleService.scheduleRelease(completed, false);
+        lifecycleService.scheduleRelease(failed, true);
+
+        assertThat(stringRedisTemplate.opsForZSet().score(REAP_KEY, completed.toString()))
+                .isCloseTo(now, within(1_000.0));
+        assertThat(stringRedisTemplate.opsForZSet().score(REAP_KEY, failed.toString()))
+                .isCloseTo(now + 60_000, within(1_000.0));
+        verify(checkpointService).forget(completed);
+        verify(checkpointService).forget(failed);
+    }
+
+    @Test
+    void releasesOnlyExecutionsWhoseGraceHasPassed() {
+        lifecycleService.scheduleRelease(completed, false);
+        lifecycleService.scheduleRelease(failed, true);
+
+        lifecycleService.releaseExpiredExecutions();
+
+        assertThat(stringRedisTemplate.hasKey("execution:context:" + completed)).isFalse();
+        assertThat(stringRedisTemplate.hasKey("execution:completed:" + completed)).isFalse();
+        assertThat(stringRedisTemplate.hasKey("execution:context:" + failed)).isTrue();
+        assertThat(stringRedisTemplate.opsForZSet().range(REAP_KEY, 0, -1)).containsExactly(failed.toString());
+
+        verify(checkpointService).discard(completed);
+        verify(payloadService).release(completed);
+        verify(checkpointService, never()).discard(failed);
+        verify(payloadService, never()).release(failed);
+        assertThat(meterRegistry.get("workflow.execution.reaped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("workflow.execution.pending.reaps").gauge().value()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,124 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.support.EmbeddedRedisSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ExecutionStateNearCacheTest extends EmbeddedRedisSupport {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID executionId = UUID.randomUUID();
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @BeforeEach
+    void setUp() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Test
+    void servesOnlyRequestsItHoldsEveryFieldFor() {
+        ExecutionStateNearCache cache = cache(1024);
+        cache.put(executionId, "a", bytes("1"));
+
+        assertThat(cache.get(executionId, List.of("a", "b"))).isNull();
+        assertThat(cache.get(executionId, List.of("a"))).containsExactly(bytes("1"));
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void remembersFieldsRedisDidNotHave() {
+        ExecutionStateNearCache cache = cache(1024);
+
+        cache.putAll(executionId, List.of("a", "missing"), Arrays.asList(bytes("1"), null));
+
+        assertThat(cache.get(executionId, List.of("a", "missing"))).containsExactly(bytes("1"), null);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedExecutionPastTheByteBound() {
+        ExecutionStateNearCache cache = cache(10);
+        UUID other = UUID.randomUUID();
+        UUID newest = UUID.randomUUID();
+
+        cache.put(executionId, "a", bytes("1234"));
+        cache.put(other, "a", bytes("1234"));
+        cache.get(executionId, List.of("a"));
+        cache.put(newest, "a", bytes("1234"));
+
+        assertThat(cache.get(executionId, List.of("a"))).isNotNull();
+        assertThat(cache.get(other, List.of("a"))).isNull();
+        assertThat(cache.get(newest, List.of("a"))).isNotNull();
+        assertThat(meterRegistry.get("workflow.context.near.cache.bytes").gauge().value()).isEqualTo(8.0);
+        assertThat(meterRegistry.get("workflow.context.near.cache.evictions").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void replacingAFieldAccountsOnlyForTheDifference() {
+        ExecutionStateNearCache cache = cache(1024);
+
+        cache.put(executionId, "a", bytes("1234"));
+        cache.put(executionId, "a", bytes("12"));
+
+        assertThat(meterRegistry.get("workflow.context.near.cache.bytes").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void invalidationReachesOtherInstances() throws InterruptedException {
+        ExecutionStateNearCache local = cache(1024);
+        ExecutionStateNearCache remote = cache(1024);
+        listenerContainer.start();
+        remote.put(executionId, "a", bytes("1"));
+        local.put(executionId, "a", bytes("1"));
+
+        local.invalidate(executionId);
+
+        assertThat(local.get(executionId, List.of("a"))).isNull();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (remote.get(executionId, List.of("a")) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(remote.get(executionId, List.of("a"))).isNull();
+    }
+
+    @Test
+    void disabledCacheNeverServes() {
+        ExecutionStateNearCache cache = new ExecutionStateNearCache(stringRedisTemplate,
+                mock(RedisMessageListenerContainer.class), meterRegistry, false, 1024);
+
+        cache.put(executionId, "a", bytes("1"));
+
+        assertThat(cache.get(executionId, List.of("a"))).isNull();
+    }
+
+    private ExecutionStateNearCache cache(long maxBytes) {
+        return new ExecutionStateNearCache(stringRedisTemplate, listenerContainer, meterRegistry, true, maxBytes);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("workflow.context.near.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
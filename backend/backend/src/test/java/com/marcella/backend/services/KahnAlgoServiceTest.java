@@ -0,0 +1,275 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.support.EmbeddedRedisSupport;
+import com.marcella.backend.workflow.ExecutionPlan;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import com.marcella.backend.workflow.NodeCompletionResult;
+import com.marcella.backend.workflow.WorkflowDefinition;
+import com.marcella.backend.workflow.WorkflowEdge;
+import com.marcella.backend.workflow.WorkflowNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KahnAlgoServiceTest extends EmbeddedRedisSupport {
+
+    private final KahnAlgoService kahnService = new KahnAlgoService();
+    private final UUID executionId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(kahnService, "customStringRedisTemplate", stringRedisTemplate);
+    }
+
+    @Test
+    void releasesJoinOnlyAfterEveryInputCompletes() {
+        ExecutionPlan plan = plan(
+                List.of(node("start", "start"), node("a", "transform"), node("b", "transform"), node("end", "transform")),
+                List.of(edge("start", "a"), edge("start", "b"), edge("a", "end"), edge("b", "end")));
+        kahnService.initializeExecutionState(executionId, plan);
+
+        NodeCompletionResult start = kahnService.processNodeCompletion(executionId, "start", 1, plan, Map.of());
+        assertThat(start.getReadyNodes()).containsExactlyInAnyOrder("a", "b");
+        assertThat(start.getRemainingNodes()).isEqualTo(3);
+
+        assertThat(kahnService.processNodeCompletion(executionId, "a", 1, plan, Map.of()).getReadyNodes()).isEmpty();
+        assertThat(kahnService.processNodeCompletion(executionId, "b", 1, plan, Map.of()).getReadyNodes())
+                .containsExactly("end");
+
+        NodeCompletionResult end = kahnService.processNodeCompletion(executionId, "end", 1, plan, Map.of());
+        assertThat(end.isWorkflowComplete()).isTrue();
+        assertThat(kahnService.isWorkflowComplete(executionId)).isTrue();
+    }
+
+    @Test
+    void appliesEachAttemptOnlyOnce() {
+        ExecutionPlan plan = plan(List.of(node("start", "start"), node("a", "transform")), List.of(edge("start", "a")));
+        kahnService.initializeExecutionState(executionId, plan);
+
+        kahnService.processNodeCompletion(executionId, "start", 1, plan, Map.of());
+        NodeCompletionResult redelivered = kahnService.processNodeCompletion(executionId, "start", 1, plan, Map.of());
+        NodeCompletionResult retried = kahnService.processNodeCompletion(executionId, "start", 2, plan, Map.of());
+
+        assertThat(redelivered.isDuplicate()).isTrue();
+        assertThat(retried.isDuplicate()).isTrue();
+        assertThat(stringRedisTemplate.opsForHash().get("execution:indegree:" + executionId, "a")).isEqualTo("0");
+    }
+
+    @Test
+    void prunesTheUntakenBranchTransitively() {
+        ExecutionPlan plan = plan(
+                List.of(node("cond", "condition"), node("yes", "transform"), node("no", "transform"),
+                        node("after", "transform")),
+                List.of(branch("cond", "yes", "true"), branch("cond", "no", "false"), edge("no", "after")));
+        kahnService.initializeExecutionState(executionId, plan);
+
+        NodeCompletionResult result = kahnService.processNodeCompletion(executionId, "cond", 1, plan,
+                Map.of("condition_result", true));
+
+        assertThat(result.getReadyNodes()).containsExactly("yes");
+        assertThat(result.getSkippedNodes()).containsExactly("no", "after");
+        assertThat(result.getRemainingNodes()).isEqualTo(1);
+        assertThat(stringRedisTemplate.opsForSet().members("execution:skipped:" + executionId))
+                .containsExactlyInAnyOrder("no", "after");
+    }
+
+    @Test
+    void failureSkipsDependentsButKeepsJoinsWithLiveInputs() {
+        ExecutionPlan plan = plan(
+                List.of(node("start", "start"), node("a", "transform"), node("b", "transform"), node("end", "transform")),
+                List.of(edge("start", "a"), edge("start", "b"), edge("a", "end"), edge("b", "end")));
+        kahnService.initializeExecutionState(executionId, plan);
+        kahnService.processNodeCompletion(executionId, "start", 1, plan, Map.of());
+
+        NodeCompletionResult failed = kahnService.processNodeFailure(executionId, "a", 1, plan);
+        assertThat(failed.getReadyNodes()).isEmpty();
+        assertThat(failed.getSkippedNodes()).isEmpty();
+
+        assertThat(kahnService.processNodeCompletion(executionId, "b", 1, plan, Map.of()).getReadyNodes())
+                .containsExactly("end");
+        assertThat(stringRedisTemplate.opsForSet().isMember("execution:failed:" + executionId, "a")).isTrue();
+    }
+
+    @Test
+    void pipelinedCompletionsMatchSequentialOnes() {
+        ExecutionPlan plan = plan(
+                List.of(node("start", "start"), node("a", "transform"), node("b", "transform"), node("end", "transform")),
+                List.of(edge("start", "a"), edge("start", "b"), edge("a", "end"), edge("b", "end")));
+        kahnService.initializeExecutionState(executionId, plan);
+        kahnService.processNodeCompletion(executionId, "start", 1, plan, Map.of());
+
+        List<NodeCompletionResult> results = kahnService.processNodeCompletions(executionId, plan, List.of(
+                completion("a", 1), completion("b", 1), completion("a", 1)));
+
+        assertThat(results.get(0).getReadyNodes()).isEmpty();
+        assertThat(results.get(1).getReadyNodes()).containsExactly("end");
+        assertThat(results.get(2).isDuplicate()).isTrue();
+        assertThat(results.get(0).getTransitions()).isEqualTo(1);
+        assertThat(results.get(1).getTransitions()).isZero();
+    }
+
+    @Test
+    void failsWhenTheDependencyStateIsGone() {
+        ExecutionPlan plan = plan(List.of(node("start", "start"), node("a", "transform")), List.of(edge("start", "a")));
+        kahnService.initializeExecutionState(executionId, plan);
+        stringRedisTemplate.delete("execution:indegree:" + executionId);
+
+        assertThatThrownBy(() -> kahnService.processNodeCompletion(executionId, "start", 1, plan, Map.of()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Dependency state not found");
+        assertThatThrownBy(() -> kahnService.processNodeCompletions(executionId, plan, List.of(completion("start", 1))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Dependency state not found");
+        assertThat(stringRedisTemplate.hasKey("execution:seen:" + executionId)).isFalse();
+    }
+
+    @Test
+    void reloadsTheCompletionScriptAfterAFlush() {
+        ExecutionPlan plan = plan(List.of(node("start", "start"), node("a", "transform")), List.of(edge("start", "a")));
+        kahnService.initializeExecutionState(executionId, plan);
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+
+        List<NodeCompletionResult> results = kahnService.processNodeCompletions(executionId, plan,
+                List.of(completion("start", 1)));
+
+        assertThat(results.get(0).getReadyNodes()).containsExactly("a");
+        assertThat(kahnService.processNodeCompletions(executionId, plan, List.of(completion("a", 1)))
+                .get(0).isWorkflowComplete()).isTrue();
+    }
+
+    @Test
+    void fusesLinearRunsOfSpringNodes() {
+        ExecutionPlan plan = plan(
+                List.of(node("start", "start"), node("a", "transform"), node("b", "transform"), node("wait", "delay"),
+                        node("c", "transform"), node("d", "gmailSend")),
+                List.of(edge("start", "a"), edge("a", "b"), edge("b", "wait"), edge("wait", "c"), edge("c", "d")));
+
+        assertThat(plan.getChain("start")).containsExactly("start", "a", "b");
+        assertThat(plan.getChain("c")).containsExactly("c", "d");
+        assertThat(plan.isChainHead("wait")).isFalse();
+        assertThat(plan.isChainHead("a")).isFalse();
+    }
+
+    @Test
+    void endsChainsAtFanOutsJoinsAndConditions() {
+        ExecutionPlan plan = plan(
+                List.of(node("start", "start"), node("a", "transform"), node("b", "transform"), node("join", "transform"),
+                        node("cond", "condition"), node("after", "transform")),
+                List.of(edge("start", "a"), edge("start", "b"), edge("a", "join"), edge("b", "join"),
+                        edge("join", "cond"), edge("cond", "after")));
+
+        assertThat(plan.getChains()).containsOnlyKeys("join");
+        assertThat(plan.getChain("join")).containsExactly("join", "cond");
+    }
+
+    @Test
+    void resolvesTheContextKeysEachNodeReferences() {
+        WorkflowDefinition definition = WorkflowDefinition.builder()
+                .id(UUID.randomUUID())
+                .name("workflow")
+                .nodes(List.of(node("start", "start"),
+                        WorkflowNode.builder().id("mail").type("gmailSend")
+                                .data(Map.of("to", "{{user}}", "body", "Hi {{name}}")).build(),
+                        WorkflowNode.builder().id("shape").type("transform")
+                                .data(Map.of("mapping", Map.of("out", "{{dynamic}}"))).build(),
+                        WorkflowNode.builder().id("check").type("condition")
+                                .data(Map.of("condition", Map.of("field", "status"))).build()))
+                .edges(List.of(edge("start", "mail"), edge("start", "shape"), edge("start", "check")))
+                .build();
+
+        ExecutionPlan plan = new KahnAlgoService().buildExecutionPlan(definition, 1L,
+                type -> WorkflowEventProducer.SPRING_NODES_TOPIC, Set.of(), type -> Set.of("googleAccessToken"));
+
+        assertThat(plan.getContextKeys("mail")).containsExactlyInAnyOrder("user", "name", "googleAccessToken");
+        assertThat(plan.getContextKeys("check")).containsExactlyInAnyOrder("status", "googleAccessToken");
+        assertThat(plan.getContextKeys("shape")).isNull();
+    }
+
+    @Test
+    void stateKeysShareTheExecutionTtl() {
+        ExecutionPlan plan = plan(List.of(node("start", "start"), node("a", "transform")), List.of(edge("start", "a")));
+        kahnService.initializeExecutionState(executionId, plan);
+
+        kahnService.processNodeCompletion(executionId, "start", 1, plan, Map.of());
+
+        for (String key : List.of("execution:completed:", "execution:live:", "execution:seen:")) {
+            assertThat(stringRedisTemplate.getExpire(key + executionId)).isPositive();
+        }
+    }
+
+    @Test
+    void findsReadyDependentsThatHaveNotRunYet() {
+        ExecutionPlan plan = plan(
+                List.of(node("start", "start"), node("a", "transform"), node("b", "transform"), node("end", "transform")),
+                List.of(edge("start", "a"), edge("start", "b"), edge("a", "end"), edge("b", "end")));
+        kahnService.initializeExecutionState(executionId, plan);
+        kahnService.processNodeCompletion(executionId, "start", 1, plan, Map.of());
+
+        assertThat(kahnService.findUndispatchedReadyNodes(executionId, "start", plan)).containsExactlyInAnyOrder("a", "b");
+
+        kahnService.processNodeCompletion(executionId, "a", 1, plan, Map.of());
+        assertThat(kahnService.findUndispatchedReadyNodes(executionId, "start", plan)).containsExactly("b");
+    }
+
+    @Test
+    void looksThroughCompletedInlineNodes() {
+        WorkflowDefinition definition = WorkflowDefinition.builder()
+                .id(UUID.randomUUID())
+                .name("workflow")
+                .nodes(List.of(node("start", "start"), node("calc", "calculator"), node("send", "gmailSend")))
+                .edges(List.of(edge("start", "calc"), edge("calc", "send")))
+                .build();
+        ExecutionPlan plan = new KahnAlgoService().buildExecutionPlan(definition, 1L,
+                type -> WorkflowEventProducer.SPRING_NODES_TOPIC, Set.of("calculator"), null);
+        kahnService.initializeExecutionState(executionId, plan);
+        kahnService.processNodeCompletion(executionId, "start", 1, plan, Map.of());
+        kahnService.processNodeCompletion(executionId, "calc", 1, plan, Map.of());
+
+        assertThat(kahnService.findUndispatchedReadyNodes(executionId, "start", plan)).containsExactly("send");
+    }
+
+    static ExecutionPlan plan(List<WorkflowNode> nodes, List<WorkflowEdge> edges) {
+        WorkflowDefinition definition = WorkflowDefinition.builder()
+                .id(UUID.randomUUID())
+                .name("workflow")
+                .nodes(nodes)
+                .edges(edges)
+                .build();
+        return new KahnAlgoService().buildExecutionPlan(definition, 1L,
+                type -> WorkflowEventProducer.SPRING_NODES_TOPIC, Set.of(), null);
+    }
+
+    static WorkflowNode node(String id, String type) {
+        return WorkflowNode.builder().id(id).type(type).data(Map.of()).build();
+    }
+
+    static WorkflowEdge edge(String source, String target) {
+        return WorkflowEdge.builder().source(source).target(target).build();
+    }
+
+    static WorkflowEdge branch(String source, String target, String handle) {
+        return WorkflowEdge.builder().source(source).target(target).sourceHandle(handle).build();
+    }
+
+    private NodeCompletionMessage completion(String nodeId, int attempt) {
+        return NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .nodeId(nodeId)
+                .status("COMPLETED")
+                .attempt(attempt)
+                .output(Map.of())
+                .build();
+    }
+}
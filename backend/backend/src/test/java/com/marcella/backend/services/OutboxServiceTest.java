@@ -0,0 +1,278 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.entities.OutboxEvent;
+import com.marcella.backend.repositories.OutboxEventRepository;
+import com.marcella.backend.utils.WorkflowCodec;
+import com.marcella.backend.workflow.NodeExecutionMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxServiceTest {
+
+    private final OutboxEventRepository outboxRepository = mock(OutboxEventRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    private final ThreadPoolTaskExecutor relayPool = mock(ThreadPoolTaskExecutor.class);
+    private final WorkflowCodec codec = new WorkflowCodec(WorkflowCodec.Format.JSON);
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doReturn(CompletableFuture.completedFuture(null)).when(kafkaTemplate).send(anyString(), anyString(), any());
+
+        outboxService = new OutboxService(outboxRepository, kafkaTemplate, transactionTemplate,
+                entityManagerFactory, codec, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(outboxService, "outboxRelayPool", relayPool);
+        ReflectionTestUtils.setField(outboxService, "enabled", true);
+        ReflectionTestUtils.setField(outboxService, "batchSize", 10);
+        ReflectionTestUtils.setField(outboxService, "sendTimeoutMs", 1_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deletesEveryEventThatWasSent() {
+        List<OutboxEvent> events = List.of(event(1, first, "a"), event(2, second, "b"), event(3, first, "c"));
+        when(outboxRepository.lockNextBatch(anyInt())).thenReturn(events);
+
+        outboxService.relay();
+
+        assertThat(deleted()).containsExactlyInAnyOrderElementsOf(events);
+    }
+
+    @Test
+    void holdsBackTheRestOfAnExecutionAfterAFailedSend() {
+        OutboxEvent a = event(1, first, "a");
+        OutboxEvent b = event(2, first, "b");
+        OutboxEvent other = event(3, second, "other");
+        OutboxEvent c = event(4, first, "c");
+        when(outboxRepository.lockNextBatch(anyInt())).thenReturn(List.of(a, b, other, c));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .when(kafkaTemplate).send(anyString(), anyString(), eq(message("b")));
+
+        outboxService.relay();
+
+        assertThat(deleted()).containsExactlyInAnyOrder(a, other);
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), eq(message("c")));
+    }
+
+    @Test
+    void sendsTheEventsOfAnExecutionOneAfterAnother() {
+        OutboxEvent a = event(1, first, "a");
+        OutboxEvent b = event(2, first, "b");
+        when(outboxRepository.lockNextBatch(anyInt())).thenReturn(List.of(a, b));
+        CompletableFuture<Object> pending = CompletableFuture.supplyAsync(() -> null,
+                CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+        List<String> sent = new ArrayList<>();
+        doAnswer(invocation -> {
+            NodeExecutionMessage message = invocation.getArgument(2);
+            sent.add(message.getNodeId());
+            if (message.getNodeId().equals("a")) {
+                return pending;
+            }
+            assertThat(pending).isDone();
+            return CompletableFuture.completedFuture(null);
+        }).when(kafkaTemplate).send(anyString(), anyString(), any());
+
+        outboxService.relay();
+
+        assertThat(sent).containsExactly("a", "b");
+        assertThat(deleted()).containsExactly(a, b);
+    }
+
+    @Test
+    void twoRelayersSendEachEventOnce() throws Exception {
+        OutboxTable table = new OutboxTable();
+        table.insert(event(1, first, "a"), event(2, first, "b"));
+        doAnswer(invocation -> table.lockNextBatch(invocation.getArgument(0)))
+                .when(outboxRepository).lockNextBatch(anyInt());
+        doAnswer(invocation -> table.delete(invocation.getArgument(0)))
+                .when(outboxRepository).deleteAllInBatch(any());
+        doAnswer(invocation -> {
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                table.commit();
+            }
+        }).when(transactionTemplate).execute(any());
+
+        OutboxService otherRelayer = new OutboxService(outboxRepository, kafkaTemplate, transactionTemplate,
+                entityManagerFactory, codec, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(otherRelayer, "enabled", true);
+        ReflectionTestUtils.setField(otherRelayer, "batchSize", 10);
+        ReflectionTestUtils.setField(otherRelayer, "sendTimeoutMs", 1_000L);
+
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CompletableFuture<Object> firstSend = new CompletableFuture<>();
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            NodeExecutionMessage message = invocation.getArgument(2);
+            sent.add(message.getNodeId());
+            if (message.getNodeId().equals("a")) {
+                firstSendStarted.countDown();
+                return firstSend;
+            }
+            return CompletableFuture.completedFuture(null);
+        }).when(kafkaTemplate).send(anyString(), anyString(), any());
+
+        CompletableFuture<Void> relaying = CompletableFuture.runAsync(outboxService::relay);
+        assertThat(firstSendStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        table.insert(event(3, second, "other"));
+        otherRelayer.relay();
+        assertThat(sent).containsExactly("a", "other");
+
+        firstSend.complete(null);
+        relaying.get(1, TimeUnit.SECONDS);
+        otherRelayer.relay();
+
+        assertThat(sent).containsExactlyInAnyOrder("a", "b", "other");
+        assertThat(table.isEmpty()).isTrue();
+    }
+
+    @Test
+    void triggersARelayOnceTheEnqueuingTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        outboxService.enqueue(WorkflowEventProducer.SPRING_NODES_TOPIC, first, message("a"));
+        outboxService.enqueue(WorkflowEventProducer.SPRING_NODES_TOPIC, first, message("b"));
+        verify(relayPool, never()).execute(any(Runnable.class));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(relayPool).execute(any(Runnable.class));
+    }
+
+    @Test
+    void queuesOnlyInsideAJpaTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThat(outboxService.isActive()).isFalse();
+
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, new Object());
+            assertThat(outboxService.isActive()).isTrue();
+        } finally {
+            TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    /**
+     * Committed outbox rows shared by relayers, locking the head row of each execution the way
+     * {@code FOR UPDATE SKIP LOCKED} does until the relaying transaction commits.
+     */
+    private static class OutboxTable {
+
+        private final TreeMap<Long, OutboxEvent> rows = new TreeMap<>();
+        private final Map<Long, Thread> headLocks = new HashMap<>();
+        private final ThreadLocal<List<OutboxEvent>> deletes = ThreadLocal.withInitial(ArrayList::new);
+
+        synchronized void insert(OutboxEvent... events) {
+            Arrays.stream(events).forEach(event -> rows.put(event.getId(), event));
+        }
+
+        synchronized List<OutboxEvent> lockNextBatch(int limit) {
+            Map<UUID, Long> heads = new LinkedHashMap<>();
+            rows.values().forEach(event -> heads.putIfAbsent(event.getExecutionId(), event.getId()));
+
+            Set<UUID> locked = new HashSet<>();
+            heads.entrySet().stream().limit(limit).forEach(head -> {
+                Thread holder = headLocks.putIfAbsent(head.getValue(), Thread.currentThread());
+                if (holder == null || holder == Thread.currentThread()) {
+                    locked.add(head.getKey());
+                }
+            });
+            return rows.values().stream()
+                    .filter(event -> locked.contains(event.getExecutionId()))
+                    .limit(limit)
+                    .toList();
+        }
+
+        Object delete(List<OutboxEvent> events) {
+            deletes.get().addAll(events);
+            return null;
+        }
+
+        synchronized void commit() {
+            deletes.get().forEach(event -> rows.remove(event.getId()));
+            deletes.remove();
+            headLocks.values().removeIf(holder -> holder == Thread.currentThread());
+        }
+
+        synchronized boolean isEmpty() {
+            return rows.isEmpty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> deleted() {
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).deleteAllInBatch(captor.capture());
+        return captor.getValue();
+    }
+
+    private OutboxEvent event(long id, UUID executionId, String nodeId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .executionId(executionId)
+                .topic(WorkflowEventProducer.SPRING_NODES_TOPIC)
+                .messageKey(executionId.toString())
+                .payloadType(NodeExecutionMessage.class.getName())
+                .payload(codec.encode(message(nodeId)))
+                .build();
+    }
+
+    private NodeExecutionMessage message(String nodeId) {
+        return NodeExecutionMessage.builder().nodeId(nodeId).nodeType("transform").build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.configurations.PayloadStoreConfig;
+import com.marcella.backend.utils.WorkflowCodec;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadOffloadServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final UUID executionId = UUID.randomUUID();
+    private final List<String> rows = IntStream.range(0, 100).mapToObj(i -> "row-" + i).toList();
+
+    private PayloadOffloadService payloadService;
+
+    @BeforeEach
+    void setUp() {
+        PayloadStoreConfig config = new PayloadStoreConfig();
+        config.setThresholdBytes(256);
+        config.setDirectory(directory.toString());
+        payloadService = new PayloadOffloadService(new FileSystemPayloadStore(config), config,
+                new WorkflowCodec(WorkflowCodec.Format.SMILE));
+    }
+
+    @Test
+    void offloadsValuesOverTheThresholdAndResolvesThemBack() {
+        Map<String, Object> output = Map.of("status", 200, "rows", rows);
+
+        Map<String, Object> offloaded = payloadService.offload(executionId, output);
+
+        assertThat(offloaded.get("status")).isEqualTo(200);
+        assertThat(PayloadOffloadService.isReference(offloaded.get("rows"))).isTrue();
+        assertThat(directory.resolve(executionId.toString()).toFile().list()).hasSize(1);
+
+        assertThat(payloadService.resolving(offloaded).get("rows")).isEqualTo(rows);
+        assertThat(payloadService.materialize(offloaded)).isEqualTo(output);
+        assertThat(payloadService.resolve(offloaded.get("rows"))).isEqualTo(rows);
+    }
+
+    @Test
+    void leavesOutputsUnderTheThresholdInline() {
+        Map<String, Object> output = Map.of("status", 200, "rows", List.of("a", "b"));
+
+        assertThat(payloadService.offload(executionId, output)).isSameAs(output);
+        assertThat(directory.resolve(executionId.toString())).doesNotExist();
+    }
+
+    @Test
+    void offloadsEveryStepOfAChainCompletion() {
+        NodeCompletionMessage step = NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .nodeId("fetch")
+                .output(Map.of("rows", rows))
+                .build();
+        NodeCompletionMessage completion = NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .nodeId("fetch")
+                .output(Map.of("rows", rows))
+                .chainCompletions(new ArrayList<>(List.of(step)))
+                .build();
+
+        payloadService.offload(completion);
+
+        assertThat(PayloadOffloadService.isReference(completion.getOutput().get("rows"))).isTrue();
+        assertThat(PayloadOffloadService.isReference(step.getOutput().get("rows"))).isTrue();
+        assertThat(payloadService.materialize(step.getOutput())).isEqualTo(Map.of("rows", rows));
+    }
+
+    @Test
+    void releasesThePayloadsOfAnExecution() {
+        Map<String, Object> offloaded = payloadService.offload(executionId, Map.of("rows", rows));
+
+        payloadService.release(executionId);
+
+        assertThat(directory.resolve(executionId.toString())).doesNotExist();
+        assertThat(payloadService.resolve(offloaded.get("rows"))).isNull();
+    }
+}
@@ -0,0 +1,69 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.support.EmbeddedRedisSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisUnitOfWorkTest extends EmbeddedRedisSupport {
+
+    private RedisUnitOfWorkFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new RedisUnitOfWorkFactory(contextRedisTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void readsObserveWritesQueuedEarlierInTheStep() {
+        RedisUnitOfWork unitOfWork = factory.begin();
+        unitOfWork.write(connection -> connection.stringCommands().set(bytes("a"), bytes("1")));
+        unitOfWork.write(connection -> {
+            connection.hashCommands().hSet(bytes("h"), bytes("f"), bytes("2"));
+            connection.keyCommands().expire(bytes("h"), 60);
+        });
+
+        List<Object> results = unitOfWork.read(List.of(
+                connection -> connection.stringCommands().get(bytes("a")),
+                connection -> connection.hashCommands().hGet(bytes("h"), bytes("f"))));
+
+        assertThat(results).hasSize(2);
+        assertThat(new String((byte[]) results.get(0), StandardCharsets.UTF_8)).isEqualTo("1");
+        assertThat(new String((byte[]) results.get(1), StandardCharsets.UTF_8)).isEqualTo("2");
+        assertThat(unitOfWork.getRoundTrips()).isEqualTo(1);
+    }
+
+    @Test
+    void flushesWritesInOneRoundTrip() {
+        RedisUnitOfWork unitOfWork = factory.begin();
+        unitOfWork.write(connection -> connection.stringCommands().set(bytes("a"), bytes("1")));
+        unitOfWork.write(connection -> connection.stringCommands().set(bytes("b"), bytes("2")));
+
+        unitOfWork.flush();
+        unitOfWork.flush();
+
+        assertThat(contextRedisTemplate.opsForValue().get("a")).isEqualTo(bytes("1"));
+        assertThat(contextRedisTemplate.opsForValue().get("b")).isEqualTo(bytes("2"));
+        assertThat(unitOfWork.getRoundTrips()).isEqualTo(1);
+    }
+
+    @Test
+    void anEmptyReadStillFlushesPendingWrites() {
+        RedisUnitOfWork unitOfWork = factory.begin();
+        unitOfWork.write(connection -> connection.stringCommands().set(bytes("a"), bytes("1")));
+
+        assertThat(unitOfWork.read(List.of())).isEmpty();
+
+        assertThat(contextRedisTemplate.hasKey("a")).isTrue();
+        assertThat(unitOfWork.getRoundTrips()).isEqualTo(1);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.configurations.PayloadStoreConfig;
+import com.marcella.backend.support.EmbeddedRedisSupport;
+import com.marcella.backend.utils.WorkflowCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReturnHandlerServiceTest extends EmbeddedRedisSupport {
+
+    private final Map<String, byte[]> payloads = new ConcurrentHashMap<>();
+    private final WorkflowCodec codec = new WorkflowCodec(WorkflowCodec.Format.SMILE);
+    private final UUID executionId = UUID.randomUUID();
+
+    private PayloadOffloadService payloadService;
+    private ReturnHandlerService returnHandler;
+
+    @BeforeEach
+    void setUp() {
+        PayloadStoreConfig config = new PayloadStoreConfig();
+        config.setThresholdBytes(64);
+        payloadService = new PayloadOffloadService(new InMemoryPayloadStore(), config, codec);
+
+        returnHandler = new ReturnHandlerService(redisTemplate, payloadService, codec);
+        ReflectionTestUtils.setField(returnHandler, "contextRedisTemplate", contextRedisTemplate);
+    }
+
+    @Test
+    void roundTripsImmutableMapsAndLists() {
+        returnHandler.storeReturnVariables(executionId, List.of("summary", "items"));
+
+        returnHandler.captureReturnValues(executionId, List.of("summary", "items"), Map.of(
+                "summary", Map.of("count", 2, "tags", List.of("a", "b")),
+                "items", List.of(Map.of("id", 1), Map.of("id", 2))));
+
+        Map<String, Object> values = returnHandler.extractReturnVariables(executionId);
+        assertThat(values.get("summary")).isEqualTo(Map.of("count", 2, "tags", List.of("a", "b")));
+        assertThat(values.get("items")).isEqualTo(List.of(Map.of("id", 1), Map.of("id", 2)));
+    }
+
+    @Test
+    void resolvesOffloadedPayloadReferences() {
+        String large = "x".repeat(1024);
+        Map<String, Object> output = payloadService.offload(executionId, Map.of("body", large));
+        assertThat(output.get("body")).isInstanceOf(Map.class);
+        returnHandler.storeReturnVariables(executionId, List.of("body"));
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            returnHandler.writeReturnValues(connection, executionId, List.of("body"), output);
+            return null;
+        });
+
+        assertThat(returnHandler.extractReturnVariables(executionId)).containsEntry("body", large);
+    }
+
+    @Test
+    void keepsTheFirstValueCapturedForAVariable() {
+        returnHandler.storeReturnVariables(executionId, List.of("result"));
+        returnHandler.captureReturnValues(executionId, List.of("result"), Map.of("result", List.of(1)));
+
+        returnHandler.captureMissingReturnValues(executionId, List.of("result"), Map.of("result", List.of(2)));
+
+        assertThat(returnHandler.extractReturnVariables(executionId)).containsEntry("result", List.of(1));
+        assertThat(returnHandler.hasAllReturnValues(executionId)).isTrue();
+    }
+
+    @Test
+    void readsValuesWrittenWithTheTypedSerializer() {
+        returnHandler.storeReturnVariables(executionId, List.of("legacy", "name"));
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("count", 3);
+        redisTemplate.opsForHash().put("execution:return_values:" + executionId, "legacy", legacy);
+        redisTemplate.opsForHash().put("execution:return_values:" + executionId, "name", "report");
+
+        Map<String, Object> values = returnHandler.extractReturnVariables(executionId);
+
+        assertThat(values.get("legacy")).isEqualTo(Map.of("count", 3));
+        assertThat(values.get("name")).isEqualTo("report");
+    }
+
+    private class InMemoryPayloadStore implements PayloadStore {
+
+        @Override
+        public String put(UUID executionId, byte[] data) {
+            String reference = executionId + ":" + UUID.randomUUID();
+            payloads.put(reference, data);
+            return reference;
+        }
+
+        @Override
+        public byte[] get(String reference) {
+            return payloads.get(reference);
+        }
+
+        @Override
+        public void release(UUID executionId) {
+            payloads.keySet().removeIf(reference -> reference.startsWith(executionId.toString()));
+        }
+    }
+}
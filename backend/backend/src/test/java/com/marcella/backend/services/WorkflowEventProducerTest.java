@@ -0,0 +1,97 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import com.marcella.backend.workflow.NodeExecutionMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class WorkflowEventProducerTest {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final UUID executionId = UUID.randomUUID();
+
+    private WorkflowEventProducer eventProducer;
+
+    @BeforeEach
+    void setUp() {
+        when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(new CompletableFuture<>());
+        eventProducer = new WorkflowEventProducer(kafkaTemplate, outboxService);
+    }
+
+    @Test
+    void keysNodeExecutionsByExecutionId() {
+        NodeExecutionMessage message = NodeExecutionMessage.builder()
+                .executionId(executionId)
+                .nodeId("node-1")
+                .nodeType("text-generation")
+                .build();
+
+        eventProducer.publishNodeExecution(message);
+
+        verify(kafkaTemplate).send("fastapi-nodes", executionId.toString(), message);
+    }
+
+    @Test
+    void routesSpringNodesToTheLaneOfTheirNodeType() {
+        ReflectionTestUtils.setField(eventProducer, "lanesEnabled", true);
+
+        assertThat(eventProducer.resolveTopic("httpGet")).isEqualTo(WorkflowEventProducer.SPRING_IO_NODES_TOPIC);
+        assertThat(eventProducer.resolveTopic("gmailSend")).isEqualTo(WorkflowEventProducer.SPRING_IO_NODES_TOPIC);
+        assertThat(eventProducer.resolveTopic("googleCalendar")).isEqualTo(WorkflowEventProducer.SPRING_IO_NODES_TOPIC);
+        assertThat(eventProducer.resolveTopic("delay")).isEqualTo(WorkflowEventProducer.SPRING_WAIT_NODES_TOPIC);
+        assertThat(eventProducer.resolveTopic("trigger")).isEqualTo(WorkflowEventProducer.SPRING_WAIT_NODES_TOPIC);
+        assertThat(eventProducer.resolveTopic("transform")).isEqualTo(WorkflowEventProducer.SPRING_NODES_TOPIC);
+        assertThat(eventProducer.resolveTopic("calculator")).isEqualTo(WorkflowEventProducer.SPRING_NODES_TOPIC);
+        assertThat(eventProducer.resolveTopic("summarization")).isEqualTo("fastapi-nodes");
+    }
+
+    @Test
+    void routesEverySpringNodeToOneTopicWhenLanesAreDisabled() {
+        ReflectionTestUtils.setField(eventProducer, "lanesEnabled", false);
+
+        assertThat(eventProducer.resolveTopic("httpGet")).isEqualTo(WorkflowEventProducer.SPRING_NODES_TOPIC);
+        assertThat(eventProducer.resolveTopic("delay")).isEqualTo(WorkflowEventProducer.SPRING_NODES_TOPIC);
+        assertThat(eventProducer.resolveTopic("summarization")).isEqualTo("fastapi-nodes");
+    }
+
+    @Test
+    void publishesToTheResolvedLane() {
+        ReflectionTestUtils.setField(eventProducer, "lanesEnabled", true);
+        NodeExecutionMessage message = NodeExecutionMessage.builder()
+                .executionId(executionId)
+                .nodeId("wait")
+                .nodeType("delay")
+                .build();
+
+        eventProducer.publishNodeExecution(message);
+
+        verify(kafkaTemplate).send(WorkflowEventProducer.SPRING_WAIT_NODES_TOPIC, executionId.toString(), message);
+    }
+
+    @Test
+    void keysNodeCompletionsByExecutionId() {
+        NodeCompletionMessage message = NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .nodeId("node-1")
+                .status("COMPLETED")
+                .build();
+
+        eventProducer.publishNodeCompletion(message);
+
+        verify(kafkaTemplate).send("node-completion", executionId.toString(), message);
+    }
+}
@@ -0,0 +1,176 @@
+package com.marcella.backend.services;
+
+import com.marcella.backend.entities.Workflows;
+import com.marcella.backend.nodeHandlers.GoogleCalendarNodeHandler;
+import com.marcella.backend.repositories.WorkflowRepository;
+import com.marcella.backend.workflow.ExecutionPlan;
+import com.marcella.backend.workflow.WorkflowDefinition;
+import com.marcella.backend.workflow.WorkflowEdge;
+import com.marcella.backend.workflow.WorkflowNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class WorkflowPlanCacheTest {
+
+    private final WorkflowRepository workflowRepository = mock(WorkflowRepository.class);
+    private final WorkflowDefinitionParser parser = mock(WorkflowDefinitionParser.class);
+    private final WorkflowEventProducer eventProducer = mock(WorkflowEventProducer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WorkflowPlanCache planCache;
+
+    @BeforeEach
+    void setUp() {
+        when(eventProducer.resolveTopic(anyString())).thenReturn(WorkflowEventProducer.SPRING_NODES_TOPIC);
+        when(parser.parseWorkflowDefinition(any())).thenAnswer(invocation ->
+                definition(((Workflows) invocation.getArgument(0)).getId()));
+
+        planCache = new WorkflowPlanCache(workflowRepository, parser, new KahnAlgoService(), eventProducer,
+                List.of(new GoogleCalendarNodeHandler()), meterRegistry, 2, true, List.of("start", "calculator"),
+                true, List.of("googleAccessToken"));
+    }
+
+    @Test
+    void compilesEachWorkflowVersionOnce() {
+        Workflows workflow = workflow(UUID.randomUUID(), 1L);
+
+        ExecutionPlan first = planCache.getPlan(workflow);
+        ExecutionPlan second = planCache.getPlan(workflow);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getInitialReadyNodes()).containsExactly("start");
+        assertThat(first.getInlineNodes()).containsExactlyInAnyOrder("start", "calc");
+        verify(parser, times(1)).parseWorkflowDefinition(workflow);
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void recompilesWhenTheVersionChanges() {
+        UUID workflowId = UUID.randomUUID();
+        ExecutionPlan v1 = planCache.getPlan(workflow(workflowId, 1L));
+        ExecutionPlan v2 = planCache.getPlan(workflow(workflowId, 2L));
+
+        assertThat(v2).isNotSameAs(v1);
+        assertThat(v2.getVersion()).isEqualTo(2L);
+        assertThat(planCache.getPlan(workflow(workflowId, 1L))).isSameAs(v1);
+    }
+
+    @Test
+    void loadsTheLatestDefinitionOnMissById() {
+        UUID workflowId = UUID.randomUUID();
+        when(workflowRepository.findById(workflowId)).thenReturn(Optional.of(workflow(workflowId, 3L)));
+
+        ExecutionPlan plan = planCache.getPlan(workflowId, 3L);
+
+        assertThat(plan.getVersion()).isEqualTo(3L);
+        assertThat(planCache.getPlan(workflowId, 3L)).isSameAs(plan);
+        verify(workflowRepository, times(1)).findById(workflowId);
+    }
+
+    @Test
+    void invalidateDropsEveryVersionOfTheWorkflow() {
+        Workflows workflow = workflow(UUID.randomUUID(), 1L);
+        ExecutionPlan plan = planCache.getPlan(workflow);
+
+        planCache.invalidate(workflow.getId());
+
+        assertThat(planCache.getPlan(workflow)).isNotSameAs(plan);
+        verify(parser, times(2)).parseWorkflowDefinition(workflow);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedPlan() {
+        Workflows first = workflow(UUID.randomUUID(), 1L);
+        Workflows second = workflow(UUID.randomUUID(), 1L);
+        Workflows third = workflow(UUID.randomUUID(), 1L);
+
+        ExecutionPlan firstPlan = planCache.getPlan(first);
+        ExecutionPlan secondPlan = planCache.getPlan(second);
+        planCache.getPlan(first);
+        planCache.getPlan(third);
+
+        assertThat(planCache.getPlan(first)).isSameAs(firstPlan);
+        assertThat(planCache.getPlan(second)).isNotSameAs(secondPlan);
+        assertThat(meterRegistry.get("workflow.plan.cache.size").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void projectsTheKeysHandlersDeclare() {
+        ExecutionPlan plan = planCache.getPlan(workflow(UUID.randomUUID(), 1L));
+
+        assertThat(plan.getContextKeys("calendar"))
+                .containsExactlyInAnyOrder("googleAccessToken", "user_email", "title");
+        assertThat(plan.getContextKeys("mail")).containsExactly("googleAccessToken");
+    }
+
+    @Test
+    void handlersCannotMutateTheCachedNodeConfig() {
+        UUID workflowId = UUID.randomUUID();
+        Map<String, Object> headers = new HashMap<>(Map.of("accept", "json"));
+        Map<String, Object> data = new HashMap<>(Map.of("url", "https://example.com", "headers", headers,
+                "tags", new ArrayList<>(List.of("a"))));
+        doReturn(WorkflowDefinition.builder()
+                .id(workflowId)
+                .name("workflow")
+                .nodes(List.of(WorkflowNode.builder().id("fetch").type("httpGet").data(data).build()))
+                .edges(List.of())
+                .build()).when(parser).parseWorkflowDefinition(any());
+
+        ExecutionPlan plan = planCache.getPlan(workflow(workflowId, 1L));
+        Map<String, Object> nodeData = plan.getNode("fetch").getData();
+        headers.put("accept", "xml");
+
+        assertThatThrownBy(() -> nodeData.put("url", "https://other.example.com"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((Map<String, Object>) nodeData.get("headers")).put("accept", "xml"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((List<Object>) nodeData.get("tags")).add("b"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(nodeData.get("headers")).isEqualTo(Map.of("accept", "json"));
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("workflow.plan.cache.requests").tag("result", result).counter().count();
+    }
+
+    private Workflows workflow(UUID id, Long version) {
+        return Workflows.builder().id(id).name("workflow").version(version).build();
+    }
+
+    private WorkflowDefinition definition(UUID id) {
+        return WorkflowDefinition.builder()
+                .id(id)
+                .name("workflow")
+                .nodes(List.of(
+                        WorkflowNode.builder().id("start").type("start").data(Map.of()).build(),
+                        WorkflowNode.builder().id("calc").type("calculator").data(Map.of()).build(),
+                        WorkflowNode.builder().id("mail").type("gmailSend").data(Map.of()).build(),
+                        WorkflowNode.builder().id("calendar").type("googleCalendar")
+                                .data(Map.of("summary", "{{title}}")).build()))
+                .edges(List.of(
+                        WorkflowEdge.builder().source("start").target("calc").build(),
+                        WorkflowEdge.builder().source("calc").target("mail").build(),
+                        WorkflowEdge.builder().source("calc").target("calendar").build()))
+                .build();
+    }
+}
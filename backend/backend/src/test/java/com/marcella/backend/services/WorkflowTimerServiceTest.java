@@ -0,0 +1,163 @@
+package com.marcella.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcella.backend.support.EmbeddedRedisSupport;
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import com.marcella.backend.workflow.NodeExecutionMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class WorkflowTimerServiceTest extends EmbeddedRedisSupport {
+
+    private static final String TIMERS_KEY = "workflow:timers";
+    private static final String PAYLOADS_KEY = "workflow:timer:payloads";
+    private static final String LEASES_KEY = "workflow:timer:leases";
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<String>> CLAIM_DUE_TIMERS_SCRIPT =
+            (RedisScript) RedisScript.of(new ClassPathResource("redis/claim_due_timers.lua"), List.class);
+
+    private final WorkflowEventProducer eventProducer = mock(WorkflowEventProducer.class);
+    private final WorkflowTimerService timerService =
+            new WorkflowTimerService(eventProducer, new ObjectMapper().findAndRegisterModules());
+    private final UUID executionId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(timerService, "customStringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(timerService, "batchSize", 10);
+        ReflectionTestUtils.setField(timerService, "leaseMs", 30_000L);
+        ReflectionTestUtils.setField(timerService, "sendTimeoutMs", 1_000L);
+    }
+
+    @Test
+    void deletesTheTimerOnlyAfterThePublishIsAcknowledged() {
+        doReturn(CompletableFuture.completedFuture(null)).when(eventProducer).publishNodeCompletion(any());
+        timerService.schedule(completion("delay"), Instant.now().minusMillis(1));
+
+        timerService.fireDueTimers();
+
+        verify(eventProducer).publishNodeCompletion(any());
+        assertThat(stringRedisTemplate.opsForZSet().zCard(TIMERS_KEY)).isZero();
+        assertThat(stringRedisTemplate.opsForZSet().zCard(LEASES_KEY)).isZero();
+        assertThat(stringRedisTemplate.opsForHash().size(PAYLOADS_KEY)).isZero();
+    }
+
+    @Test
+    void leavesFutureTimersAlone() {
+        timerService.schedule(completion("delay"), Instant.now().plusSeconds(60));
+
+        timerService.fireDueTimers();
+
+        verify(eventProducer, times(0)).publishNodeCompletion(any());
+        assertThat(stringRedisTemplate.opsForZSet().zCard(TIMERS_KEY)).isEqualTo(1);
+    }
+
+    @Test
+    void reschedulesWhenTheAsyncSendFails() {
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .when(eventProducer).publishNodeCompletion(any());
+        timerService.schedule(completion("delay"), Instant.now().minusMillis(1));
+
+        timerService.fireDueTimers();
+
+        String timerId = executionId + ":delay";
+        assertThat(stringRedisTemplate.opsForZSet().score(TIMERS_KEY, timerId)).isNotNull();
+        assertThat(stringRedisTemplate.opsForZSet().zCard(LEASES_KEY)).isZero();
+        assertThat(stringRedisTemplate.opsForHash().hasKey(PAYLOADS_KEY, timerId)).isTrue();
+    }
+
+    @Test
+    void publishesADueBatchTogetherAndReschedulesOnlyTheFailedSends() {
+        CompletableFuture<Object> slow = new CompletableFuture<>();
+        doReturn(slow).when(eventProducer).publishNodeCompletion(argThat(c -> c != null && "slow".equals(c.getNodeId())));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .when(eventProducer).publishNodeCompletion(argThat(c -> c != null && "broken".equals(c.getNodeId())));
+        timerService.schedule(completion("slow"), Instant.now().minusMillis(1));
+        timerService.schedule(completion("broken"), Instant.now().minusMillis(1));
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> slow.complete(null));
+
+        timerService.fireDueTimers();
+
+        verify(eventProducer, times(2)).publishNodeCompletion(any());
+        assertThat(stringRedisTemplate.opsForZSet().range(TIMERS_KEY, 0, -1)).containsExactly(executionId + ":broken");
+        assertThat(stringRedisTemplate.opsForZSet().zCard(LEASES_KEY)).isZero();
+    }
+
+    @Test
+    void refiresTimersWhoseLeaseExpired() {
+        timerService.schedule(completion("delay"), Instant.now().minusMillis(1));
+        long now = System.currentTimeMillis();
+        List<String> abandoned = stringRedisTemplate.execute(CLAIM_DUE_TIMERS_SCRIPT,
+                List.of(TIMERS_KEY, PAYLOADS_KEY, LEASES_KEY),
+                String.valueOf(now), "10", String.valueOf(now - 1));
+        assertThat(abandoned).hasSize(2);
+
+        doReturn(CompletableFuture.completedFuture(null)).when(eventProducer).publishNodeCompletion(any());
+        timerService.fireDueTimers();
+
+        verify(eventProducer).publishNodeCompletion(any());
+        assertThat(stringRedisTemplate.opsForHash().size(PAYLOADS_KEY)).isZero();
+        assertThat(stringRedisTemplate.opsForZSet().zCard(LEASES_KEY)).isZero();
+    }
+
+    @Test
+    void doesNotRefireTimersWithALiveLease() {
+        timerService.schedule(completion("delay"), Instant.now().minusMillis(1));
+        long now = System.currentTimeMillis();
+        stringRedisTemplate.execute(CLAIM_DUE_TIMERS_SCRIPT, List.of(TIMERS_KEY, PAYLOADS_KEY, LEASES_KEY),
+                String.valueOf(now), "10", String.valueOf(now + 60_000));
+
+        timerService.fireDueTimers();
+
+        verify(eventProducer, times(0)).publishNodeCompletion(any());
+        assertThat(stringRedisTemplate.opsForZSet().zCard(LEASES_KEY)).isEqualTo(1);
+    }
+
+    @Test
+    void publishesRetriesToTheirTopic() {
+        doReturn(CompletableFuture.completedFuture(null)).when(eventProducer).publishNodeExecution(any(), any());
+        NodeExecutionMessage retry = NodeExecutionMessage.builder()
+                .executionId(executionId)
+                .nodeId("http")
+                .nodeType("httpGet")
+                .attempt(2)
+                .build();
+        timerService.scheduleRetry(WorkflowEventProducer.SPRING_IO_NODES_TOPIC, retry, Instant.now().minusMillis(1));
+
+        timerService.fireDueTimers();
+
+        verify(eventProducer).publishNodeExecution(eq(WorkflowEventProducer.SPRING_IO_NODES_TOPIC), any());
+        assertThat(stringRedisTemplate.opsForHash().size(PAYLOADS_KEY)).isZero();
+    }
+
+    private NodeCompletionMessage completion(String nodeId) {
+        return NodeCompletionMessage.builder()
+                .executionId(executionId)
+                .nodeId(nodeId)
+                .nodeType("delay")
+                .status("COMPLETED")
+                .output(Map.of("delay_completed", true))
+                .attempt(1)
+                .build();
+    }
+}
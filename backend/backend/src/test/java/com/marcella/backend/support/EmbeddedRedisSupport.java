@@ -0,0 +1,63 @@
+package com.marcella.backend.support;
+
+import com.marcella.backend.configurations.RedisConfig;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+public abstract class EmbeddedRedisSupport {
+
+    private static final RedisConfig REDIS_CONFIG = new RedisConfig();
+
+    private static RedisServer server;
+
+    protected static LettuceConnectionFactory connectionFactory;
+    protected static RedisTemplate<String, Object> redisTemplate;
+    protected static RedisTemplate<String, String> stringRedisTemplate;
+    protected static RedisTemplate<String, byte[]> contextRedisTemplate;
+
+    @BeforeAll
+    static synchronized void startRedis() throws IOException {
+        if (server != null) {
+            return;
+        }
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = new RedisServer(port);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (IOException ignored) {
+            }
+        }));
+
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisTemplate = REDIS_CONFIG.redisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        stringRedisTemplate = REDIS_CONFIG.customStringRedisTemplate(connectionFactory);
+        stringRedisTemplate.afterPropertiesSet();
+        contextRedisTemplate = REDIS_CONFIG.contextRedisTemplate(connectionFactory);
+        contextRedisTemplate.afterPropertiesSet();
+    }
+
+    @BeforeEach
+    void flushRedis() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.marcella.backend.utils;
+
+import com.marcella.backend.workflow.NodeExecutionMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares encode and decode throughput of the JSON and Smile codecs on a node execution message whose context
+ * carries a list of records, the shape that dominates dispatch and context traffic.
+ * <p>
+ * Run with {@code mvn test -Dtest=WorkflowCodecBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WorkflowCodecBenchmarkTest {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20_000);
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 5_000);
+
+    @Test
+    void comparesJsonAndSmileThroughput() {
+        System.out.printf("%-6s %8s %10s %14s %14s%n", "format", "records", "bytes", "encode ops/s", "decode ops/s");
+        for (int records : List.of(1, 50, 500)) {
+            NodeExecutionMessage message = message(records);
+            for (WorkflowCodec.Format format : WorkflowCodec.Format.values()) {
+                WorkflowCodec codec = new WorkflowCodec(format);
+                byte[] encoded = codec.encode(message);
+                assertThat(codec.decode(encoded, NodeExecutionMessage.class)).isEqualTo(message);
+
+                measureEncode(codec, message, WARMUP);
+                measureDecode(codec, encoded, WARMUP);
+                long encodeNanos = measureEncode(codec, message, ITERATIONS);
+                long decodeNanos = measureDecode(codec, encoded, ITERATIONS);
+
+                System.out.printf("%-6s %8d %10d %14.0f %14.0f%n", format, records, encoded.length,
+                        ITERATIONS * 1e9 / encodeNanos, ITERATIONS * 1e9 / decodeNanos);
+            }
+        }
+    }
+
+    private long measureEncode(WorkflowCodec codec, NodeExecutionMessage message, int iterations) {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bytes += codec.encode(message).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(bytes).isPositive();
+        return elapsed;
+    }
+
+    private long measureDecode(WorkflowCodec codec, byte[] encoded, int iterations) {
+        int decoded = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (codec.decode(encoded, NodeExecutionMessage.class) != null) {
+                decoded++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(decoded).isEqualTo(iterations);
+        return elapsed;
+    }
+
+    private NodeExecutionMessage message(int records) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", i);
+            row.put("email", "user" + i + "@example.com");
+            row.put("subject", "Weekly report " + i);
+            row.put("score", i * 0.5);
+            row.put("labels", List.of("inbox", "important"));
+            rows.add(row);
+        }
+
+        return NodeExecutionMessage.builder()
+                .executionId(UUID.randomUUID())
+                .workflowId(UUID.randomUUID())
+                .nodeId("summarize")
+                .nodeType("transform")
+                .nodeData(Map.of("expression", "rows.map(r => r.subject)"))
+                .context(Map.of("rows", rows, "user", "ada"))
+                .timestamp(Instant.parse("2026-01-01T00:00:00Z"))
+                .priority(NodeExecutionMessage.Priority.NORMAL)
+                .attempt(1)
+                .build();
+    }
+}
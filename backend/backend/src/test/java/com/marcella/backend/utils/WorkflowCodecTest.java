@@ -0,0 +1,110 @@
+package com.marcella.backend.utils;
+
+import com.marcella.backend.workflow.NodeCompletionMessage;
+import com.marcella.backend.workflow.NodeExecutionMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkflowCodecTest {
+
+    @ParameterizedTest
+    @EnumSource(WorkflowCodec.Format.class)
+    void roundTripsExecutionMessages(WorkflowCodec.Format format) {
+        WorkflowCodec codec = new WorkflowCodec(format);
+        NodeExecutionMessage message = NodeExecutionMessage.builder()
+                .executionId(UUID.randomUUID())
+                .workflowId(UUID.randomUUID())
+                .nodeId("fetch")
+                .nodeType("httpGet")
+                .nodeData(Map.of("url", "https://example.com", "headers", Map.of("accept", "json")))
+                .context(Map.of("items", List.of(1, 2, 3), "nested", Map.of("flag", true)))
+                .timestamp(Instant.parse("2026-01-01T00:00:00Z"))
+                .priority(NodeExecutionMessage.Priority.HIGH)
+                .attempt(2)
+                .chainedNodes(List.of(NodeExecutionMessage.builder().nodeId("shape").nodeType("transform").build()))
+                .build();
+
+        byte[] encoded = codec.encode(message);
+
+        assertThat(WorkflowCodec.isSmile(encoded)).isEqualTo(format == WorkflowCodec.Format.SMILE);
+        assertThat(codec.decode(encoded, NodeExecutionMessage.class)).isEqualTo(message);
+    }
+
+    @Test
+    void decodesEitherFormatRegardlessOfTheConfiguredOne() {
+        WorkflowCodec jsonCodec = new WorkflowCodec(WorkflowCodec.Format.JSON);
+        WorkflowCodec smileCodec = new WorkflowCodec(WorkflowCodec.Format.SMILE);
+        NodeCompletionMessage completion = NodeCompletionMessage.builder()
+                .executionId(UUID.randomUUID())
+                .nodeId("calc")
+                .status("COMPLETED")
+                .output(Map.of("result", 42))
+                .attempt(1)
+                .service("spring")
+                .build();
+
+        assertThat(jsonCodec.decode(smileCodec.encode(completion), NodeCompletionMessage.class)).isEqualTo(completion);
+        assertThat(smileCodec.decode(jsonCodec.encode(completion), NodeCompletionMessage.class)).isEqualTo(completion);
+    }
+
+    @Test
+    void smileIsSmallerForRepetitiveOutputs() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(Map.of("status", "delivered", "channel", "email", "index", i));
+        }
+
+        byte[] json = new WorkflowCodec(WorkflowCodec.Format.JSON).encode(Map.of("rows", rows));
+        byte[] smile = new WorkflowCodec(WorkflowCodec.Format.SMILE).encode(Map.of("rows", rows));
+
+        assertThat(smile.length).isLessThan(json.length);
+    }
+
+    @Test
+    void onlyTheSmileHeaderIsTreatedAsBinary() {
+        assertThat(WorkflowCodec.isSmile(null)).isFalse();
+        assertThat(WorkflowCodec.isSmile(new byte[]{':', ')'})).isFalse();
+        assertThat(WorkflowCodec.isSmile("{\"a\":1}".getBytes(StandardCharsets.UTF_8))).isFalse();
+        assertThat(WorkflowCodec.isSmile(new WorkflowCodec(WorkflowCodec.Format.SMILE).encode(Map.of()))).isTrue();
+    }
+
+    @Test
+    void unknownFormatsFallBackToJson() {
+        assertThat(WorkflowCodec.Format.from(null)).isEqualTo(WorkflowCodec.Format.JSON);
+        assertThat(WorkflowCodec.Format.from(" smile ")).isEqualTo(WorkflowCodec.Format.SMILE);
+        assertThat(WorkflowCodec.Format.from("avro")).isEqualTo(WorkflowCodec.Format.JSON);
+    }
+
+    @Test
+    void kafkaSerializerKeepsJsonOutsideBinaryTopics() {
+        WorkflowKafkaSerializer serializer = new WorkflowKafkaSerializer();
+        serializer.configure(Map.of(
+                WorkflowKafkaSerializer.FORMAT_CONFIG, "smile",
+                WorkflowKafkaSerializer.BINARY_TOPICS_CONFIG, "spring-nodes, node-completion"), false);
+        WorkflowKafkaDeserializer deserializer = new WorkflowKafkaDeserializer();
+        deserializer.configure(Map.of("spring.json.value.default.type", NodeCompletionMessage.class), false);
+        NodeCompletionMessage completion = NodeCompletionMessage.builder()
+                .nodeId("calc")
+                .status("COMPLETED")
+                .service("spring")
+                .build();
+
+        byte[] binary = serializer.serialize("node-completion", completion);
+        byte[] json = serializer.serialize("fastapi-nodes", completion);
+
+        assertThat(WorkflowCodec.isSmile(binary)).isTrue();
+        assertThat(WorkflowCodec.isSmile(json)).isFalse();
+        assertThat(deserializer.deserialize("node-completion", binary)).isEqualTo(completion);
+        assertThat(deserializer.deserialize("fastapi-nodes", json)).isEqualTo(completion);
+    }
+}
@@ -0,0 +1,62 @@
+package com.marcella.backend.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LayeredContextTest {
+
+    @Test
+    void earlierLayersWin() {
+        LayeredContext context = new LayeredContext(List.of(Map.of("a", 1), Map.of("a", 2, "b", 3)));
+
+        assertThat(context.get("a")).isEqualTo(1);
+        assertThat(context.get("b")).isEqualTo(3);
+        assertThat(context).containsOnlyKeys("a", "b");
+        assertThat(new HashMap<>(context)).isEqualTo(Map.of("a", 1, "b", 3));
+    }
+
+    @Test
+    void overridesShadowEveryLayer() {
+        LayeredContext context = new LayeredContext(List.of(Map.of("a", 1)));
+        assertThat(context.size()).isEqualTo(1);
+
+        context.put("a", 5);
+        context.put("c", 7);
+
+        assertThat(context.get("a")).isEqualTo(5);
+        assertThat(new HashMap<>(context)).isEqualTo(Map.of("a", 5, "c", 7));
+    }
+
+    @Test
+    void flattensOnceUntilModified() {
+        Map<String, Object> layer = new HashMap<>(Map.of("a", 1));
+        LayeredContext context = new LayeredContext(List.of(layer));
+
+        assertThat(context.entrySet()).isSameAs(context.entrySet());
+        assertThatThrownBy(() -> context.entrySet().clear()).isInstanceOf(UnsupportedOperationException.class);
+
+        context.put("b", 2);
+        assertThat(context.entrySet()).hasSize(2);
+    }
+
+    @Test
+    void resolvesValuesLazily() {
+        AtomicInteger resolved = new AtomicInteger();
+        LayeredContext context = new LayeredContext(List.of(Map.of("a", "raw", "b", "raw")), value -> {
+            resolved.incrementAndGet();
+            return "resolved";
+        });
+
+        assertThat(context.keySet()).containsExactlyInAnyOrder("a", "b");
+        assertThat(resolved).hasValue(0);
+        assertThat(context.get("a")).isEqualTo("resolved");
+        assertThat(resolved).hasValue(1);
+    }
+}
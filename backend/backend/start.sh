@@ -11,49 +11,36 @@ echo "📁 Creating logs directory..."
 mkdir -p logs
 chmod -R 755 logs/
 
-# Create Kafka topics for the workflow system
-create_topics() {
-    echo "📝 Creating Kafka topics..."
-
-    # Wait for Kafka to be ready
-    echo "⏳ Waiting for Kafka to be ready..."
-    sleep 30
+# Same partition count as workflow.kafka.partitions; WORKFLOW_KAFKA_PARTITIONS overrides both
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+WORKFLOW_PARTITIONS="${WORKFLOW_KAFKA_PARTITIONS:-$(grep -m1 -E '^[[:space:]]+partitions:' \
+    "$SCRIPT_DIR/src/main/resources/application.yml" | awk '{print $2}')}"
+WORKFLOW_PARTITIONS="${WORKFLOW_PARTITIONS:-12}"
 
-    # Topics based on your Spring Boot configuration
+create_topic() {
     docker exec workflow-kafka kafka-topics.sh \
         --bootstrap-server localhost:29092 \
         --create --if-not-exists \
-        --topic spring-nodes \
-        --partitions 3 \
+        --topic "$1" \
+        --partitions "$2" \
         --replication-factor 1
+}
 
-    docker exec workflow-kafka kafka-topics.sh \
-        --bootstrap-server localhost:29092 \
-        --create --if-not-exists \
-        --topic fastapi-nodes \
-        --partitions 3 \
-        --replication-factor 1
+# Create Kafka topics for the workflow system
+create_topics() {
+    echo "📝 Creating Kafka topics..."
 
-    docker exec workflow-kafka kafka-topics.sh \
-        --bootstrap-server localhost:29092 \
-        --create --if-not-exists \
-        --topic node-completion \
-        --partitions 3 \
-        --replication-factor 1
+    # Wait for Kafka to be ready
+    echo "⏳ Waiting for Kafka to be ready..."
+    sleep 30
 
-    docker exec workflow-kafka kafka-topics.sh \
-        --bootstrap-server localhost:29092 \
-        --create --if-not-exists \
-        --topic workflow-coordination \
-        --partitions 1 \
-        --replication-factor 1
+    # Partition counts follow workflow.kafka.partitions, which KafkaTopicConfig also uses
+    for topic in spring-nodes spring-nodes-io spring-nodes-wait fastapi-nodes node-completion; do
+        create_topic "$topic" "$WORKFLOW_PARTITIONS"
+    done
 
-    docker exec workflow-kafka kafka-topics.sh \
-        --bootstrap-server localhost:29092 \
-        --create --if-not-exists \
-        --topic workflow-state-updates \
-        --partitions 1 \
-        --replication-factor 1
+    create_topic workflow-coordination 1
+    create_topic workflow-state-updates 1
 
     echo "✅ Kafka topics created successfully"
 }
@@ -102,7 +102,6 @@ class AIDecisionHandler(BaseNodeHandler):
 
           
             output = {
-                **context,
                 "decision": decision_result["decision"],
                 "confidence": decision_result["confidence"],
                 "reasoning": decision_result["reasoning"],
@@ -126,7 +125,6 @@ class AIDecisionHandler(BaseNodeHandler):
             logger.error(f"❌ Decision failed: {e}")
 
             error_output = {
-                **context,
                 "error": str(e),
                 "decision": None,
                 "confidence": 0.0,
@@ -113,7 +113,6 @@ class ContentGenerationHandler(BaseNodeHandler):
             api_key_source = await self._determine_api_key_source(execution_id)
 
             output = {
-                **context,
                 "topic": topic,
                 "generated_content": generated_content,
                 "content_type": content_type,
@@ -139,7 +138,6 @@ class ContentGenerationHandler(BaseNodeHandler):
 
            
             error_output = {
-                **context,  
                 "error": str(e),
                 "topic": node_data.get("topic", ""),
                 "generated_content": None,
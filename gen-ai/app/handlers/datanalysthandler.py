@@ -117,7 +117,6 @@ class DataAnalystAgentHandler(BaseNodeHandler):
             api_key_source = await self._determine_api_key_source(execution_id)
 
             output = {
-                **context,
                 "analysis_request": analysis_request,
                 "analysis_plan": analysis_plan,
                 "analysis_results": analysis_results,
@@ -142,7 +141,6 @@ class DataAnalystAgentHandler(BaseNodeHandler):
             logger.error(f"❌ Data analyst agent failed: {e}")
 
             error_output = {
-                **context,
                 "error": str(e),
                 "analysis_request": node_data.get("analysis_request", ""),
                 "node_type": "data-analyst-agent",
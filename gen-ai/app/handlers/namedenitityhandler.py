@@ -90,7 +90,6 @@ class NamedEntityHandler(BaseNodeHandler):
             api_key_source = await self._determine_api_key_source(execution_id)
 
             output = {
-                **context,
                 "text": text,
                 "entities": entities,
                 "entity_types": entity_types,
@@ -113,7 +112,6 @@ class NamedEntityHandler(BaseNodeHandler):
             logger.error(f"❌ Named entity extraction failed: {e}")
 
             error_output = {
-                **context,
                 "error": str(e),
                 "text": node_data.get("text", ""),
                 "entities": [],
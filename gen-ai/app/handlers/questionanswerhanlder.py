@@ -80,7 +80,6 @@ class QuestionAnswerHandler(BaseNodeHandler):
             api_key_source = await self._determine_api_key_source(execution_id)
 
             output = {
-                **context,
                 "question": question,
                 "answer": answer,
                 "context_text": context_text,
@@ -102,7 +101,6 @@ class QuestionAnswerHandler(BaseNodeHandler):
             logger.error(f"❌ Question answering failed: {e}")
 
             error_output = {
-                **context,
                 "error": str(e),
                 "question": node_data.get("question", ""),
                 "answer": None,
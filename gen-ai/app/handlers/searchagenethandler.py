@@ -135,7 +135,6 @@ class SearchAgentHandler(BaseNodeHandler):
             api_key_source = await self._determine_api_key_source(execution_id)
 
             output = {
-                **context,
                 "query": query,
                 "answer": final_answer,
                 "search_performed": search_decision["needs_search"],
@@ -160,7 +159,6 @@ class SearchAgentHandler(BaseNodeHandler):
             logger.error(f"❌ Search agent failed: {e}")
 
             error_output = {
-                **context,
                 "error": str(e),
                 "query": node_data.get("query", ""),
                 "answer": None,
@@ -88,7 +88,6 @@ class SummarizationHandler(BaseNodeHandler):
             api_key_source = await self._determine_api_key_source(execution_id)
 
             output = {
-                **context,
                 "summary": summary,
                 "original_text": text,
                 "node_type": "summarization",
@@ -114,7 +113,6 @@ class SummarizationHandler(BaseNodeHandler):
             logger.error(f"❌ Summarization failed: {e}")
 
             error_output = {
-                **context,
                 "error": str(e),
                 "summary": None,
                 "original_text": node_data.get("text", ""),
@@ -98,7 +98,6 @@ class TextClassificationHandler(BaseNodeHandler):
             api_key_source = await self._determine_api_key_source(execution_id)
 
             output = {
-                **context,
                 "text": text,
                 "classification": classification_result["category"],
                 "confidence": classification_result["confidence"],
@@ -121,7 +120,6 @@ class TextClassificationHandler(BaseNodeHandler):
             logger.error(f"❌ Text classification failed: {e}")
 
             error_output = {
-                **context,
                 "error": str(e),
                 "text": node_data.get("text", ""),
                 "classification": None,
@@ -106,7 +106,6 @@ class TextGenerationHandler(BaseNodeHandler):
 
         
             output = {
-                **context,
                 "generated_text": generated_text,
                 "full_text": f"{prompt} {generated_text}",
                 "original_prompt": prompt,
@@ -132,7 +131,6 @@ class TextGenerationHandler(BaseNodeHandler):
             logger.error(f"❌ Generation failed: {e}")
 
             error_output = {
-                **context,
                 "error": str(e),
                 "generated_text": None,
                 "original_prompt": node_data.get("prompt", ""),
@@ -99,7 +99,6 @@ class TranslationHandler(BaseNodeHandler):
             api_key_source = await self._determine_api_key_source(execution_id)
 
             output = {
-                **context,
                 "original_text": text,
                 "translated_text": translated_text,
                 "source_language": source_language,
@@ -122,7 +121,6 @@ class TranslationHandler(BaseNodeHandler):
             logger.error(f"❌ Translation failed: {e}")
 
             error_output = {
-                **context,
                 "error": str(e),
                 "original_text": node_data.get("text", ""),
                 "translated_text": None,
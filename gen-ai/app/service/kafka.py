@@ -160,7 +160,7 @@ class KafkaService:
             
             future = self.producer.send(
                 settings.kafka_node_completion_topic,
-                key=completion_message.nodeId,
+                key=str(completion_message.executionId),
                 value=message_dict
             )
             
@@ -55,6 +55,11 @@ class NodeExecutorService:
         execution_id = str(message.executionId)
         
         logger.info(f"🔄 Executing node: {node_id} of type: {node_type} for execution: {message.executionId}")
+
+        if await self.redis_service.exists(f"execution:aborted:{execution_id}"):
+            logger.info(f"⏭️ Dropping node: {node_id} of aborted execution: {execution_id}")
+            return
+
         try:
 
 
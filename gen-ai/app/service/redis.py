@@ -56,6 +56,14 @@ class RedisService:
             logger.error(f"Redis GET error for key {key}: {e}")
             raise
 
+    async def exists(self, key: str) -> bool:
+        """Check whether a key exists in Redis"""
+        try:
+            return await self.redis.exists(key) > 0
+        except Exception as e:
+            logger.error(f"Redis EXISTS error for key {key}: {e}")
+            raise
+
     async def delete(self, key: str):
         """Delete a key from Redis"""
         try: